@@ -0,0 +1,150 @@
+package com.ai.love.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 异步任务线程池配置
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${app.async.ai-chat.core-size:8}")
+    private int aiChatCoreSize;
+
+    @Value("${app.async.ai-chat.max-size:32}")
+    private int aiChatMaxSize;
+
+    @Value("${app.async.ai-chat.queue-capacity:200}")
+    private int aiChatQueueCapacity;
+
+    @Value("${app.async.summary.pool-size:2}")
+    private int summaryPoolSize;
+
+    @Value("${app.async.summary.queue-capacity:100}")
+    private int summaryQueueCapacity;
+
+    @Value("${app.emotion.workers:2}")
+    private int emotionWorkers;
+
+    /**
+     * 对话批量情感分析线程数，0 表示与CPU核数相同
+     */
+    @Value("${app.async.emotion-batch.pool-size:0}")
+    private int emotionBatchPoolSize;
+
+    @Value("${app.async.emotion-batch.queue-capacity:64}")
+    private int emotionBatchQueueCapacity;
+
+    /**
+     * 密码哈希线程数，0 表示与CPU核数相同
+     */
+    @Value("${app.async.password-hash.pool-size:0}")
+    private int passwordHashPoolSize;
+
+    @Value("${app.async.password-hash.queue-capacity:64}")
+    private int passwordHashQueueCapacity;
+
+    /**
+     * AI对话线程池，用于执行耗时的模型调用（如流式回复）
+     */
+    @Bean(name = "aiChatExecutor")
+    public ThreadPoolTaskExecutor aiChatExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(aiChatCoreSize);
+        executor.setMaxPoolSize(aiChatMaxSize);
+        executor.setQueueCapacity(aiChatQueueCapacity);
+        executor.setThreadNamePrefix("ai-chat-");
+        // 队列满时直接拒绝，由调用方返回“服务繁忙”，避免占用Web线程
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * 对话摘要线程池，后台压缩较早的对话历史
+     */
+    @Bean(name = "conversationSummaryExecutor")
+    public ThreadPoolTaskExecutor conversationSummaryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(summaryPoolSize);
+        executor.setMaxPoolSize(summaryPoolSize);
+        executor.setQueueCapacity(summaryQueueCapacity);
+        executor.setThreadNamePrefix("conv-summary-");
+        // 摘要是尽力而为的任务，队列满时丢弃，下一轮对话会再次触发
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * 情感分析线程池，每个线程是一个常驻的队列消费者
+     */
+    @Bean(name = "emotionAnalysisExecutor")
+    public ThreadPoolTaskExecutor emotionAnalysisExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(emotionWorkers);
+        executor.setMaxPoolSize(emotionWorkers);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("emotion-");
+        // 停机时等待消费者处理完队列中剩余的任务
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * 对话批量情感分析线程池，把一块待分析消息分给多个核并行计算
+     */
+    @Bean(name = "emotionBatchExecutor")
+    public ThreadPoolTaskExecutor emotionBatchExecutor() {
+        int poolSize = emotionBatchPoolSize > 0 ? emotionBatchPoolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(emotionBatchQueueCapacity);
+        executor.setThreadNamePrefix("emotion-batch-");
+        // 队列满时拒绝，由调用方在请求线程上分析被拒绝的部分
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * 后台维护线程池，执行历史数据回填等长耗时的一次性任务，不占用定时任务线程
+     */
+    @Bean(name = "maintenanceExecutor")
+    public ThreadPoolTaskExecutor maintenanceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("maintenance-");
+        // 回填可重复执行，停机时不必等待
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * 密码哈希线程池，限制BCrypt同时占用的CPU核数；排队数即登录准入上限
+     */
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor() {
+        int poolSize = passwordHashPoolSize > 0 ? passwordHashPoolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(passwordHashQueueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        // 队列满时直接拒绝，由调用方返回429，登录高峰时快速失败而不是拖垮整机
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ai.love.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 情感分析配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.emotion")
+public class EmotionAnalysisConfig {
+
+    /**
+     * 是否自动分析新的用户消息
+     */
+    private Boolean autoAnalyze = true;
+
+    /**
+     * 待分析队列容量，队列满时丢弃新任务
+     */
+    private Integer queueCapacity = 10000;
+
+    /**
+     * 分析工作线程数
+     */
+    private Integer workers = 2;
+
+    /**
+     * 每批最多处理的消息数
+     */
+    private Integer batchSize = 100;
+
+    /**
+     * 情感词典位置（classpath: 或 file:），文件系统中的词典修改后自动重新加载
+     */
+    private String lexiconPath = "classpath:emotion/lexicon.tsv";
+
+    /**
+     * 词典变更检查间隔（毫秒）
+     */
+    private Long lexiconReloadInterval = 30000L;
+
+    /**
+     * 本地词典文件是否以内存映射方式读取
+     */
+    private Boolean lexiconMemoryMapped = true;
+
+    /**
+     * 否定词与情感词之间允许间隔的字符数（如“不太开心”间隔1个字）
+     */
+    private Integer negationWindow = 1;
+
+    /**
+     * 关键词词典（词条与逆文档频率），同时用作分词词典
+     */
+    private String keywordDictionaryPath = "classpath:keyword/dictionary.tsv";
+
+    /**
+     * 停用词表
+     */
+    private String stopwordsPath = "classpath:keyword/stopwords.txt";
+
+    /**
+     * 未收录词的逆文档频率
+     */
+    private Double keywordDefaultIdf = 5.0;
+
+    /**
+     * 每条消息最多提取的关键词数
+     */
+    private Integer maxKeywords = 5;
+
+    /**
+     * 每个用户关键词高频项表保留的计数器数（Space-Saving 容量）
+     */
+    private Integer keywordSketchCapacity = 200;
+
+    /**
+     * 关键词云返回的关键词数
+     */
+    private Integer keywordCloudSize = 50;
+
+    /**
+     * 缺失关键词高频项表的后台重建间隔（毫秒）
+     */
+    private Long keywordSketchRebuildInterval = 60000L;
+
+    /**
+     * 每次重建的用户数上限
+     */
+    private Integer keywordSketchRebuildBatchSize = 50;
+
+    /**
+     * 启动后是否回填每日情感趋势汇总
+     */
+    private Boolean trendBackfillEnabled = false;
+
+    /**
+     * 回填的天数（不含今天）
+     */
+    private Integer trendBackfillDays = 365;
+}
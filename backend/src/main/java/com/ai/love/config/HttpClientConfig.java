@@ -0,0 +1,59 @@
+package com.ai.love.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 出站HTTP客户端连接池配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.http-client")
+public class HttpClientConfig {
+
+    /**
+     * 连接池最大连接数
+     */
+    private int maxTotal = 200;
+
+    /**
+     * 每个路由（目标主机）的最大连接数
+     */
+    private int maxPerRoute = 50;
+
+    /**
+     * 建立连接超时时间（毫秒）
+     */
+    private long connectTimeout = 5000;
+
+    /**
+     * 从连接池获取连接的等待时间（毫秒）
+     */
+    private long connectionRequestTimeout = 3000;
+
+    /**
+     * 响应读取超时时间（毫秒）
+     */
+    private long responseTimeout = 60000;
+
+    /**
+     * 服务端未声明Keep-Alive时连接的保活时间（毫秒）
+     */
+    private long keepAlive = 30000;
+
+    /**
+     * 空闲连接复用前的校验间隔（毫秒）
+     */
+    private long validateAfterInactivity = 2000;
+
+    /**
+     * 空闲连接清理时间（毫秒）
+     */
+    private long idleEvictTimeout = 60000;
+
+    /**
+     * 连接最大存活时间（毫秒），到期后不再复用
+     */
+    private long timeToLive = 600000;
+}
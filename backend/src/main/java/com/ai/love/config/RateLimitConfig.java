@@ -0,0 +1,62 @@
+package com.ai.love.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 接口限流配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitConfig {
+
+    /**
+     * 是否启用限流
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 每类接口最多保留的令牌桶数（按用户），超出时淘汰最久未使用的
+     */
+    private Long maxBuckets = 100000L;
+
+    /**
+     * 各类接口的配额，键为接口类别名称
+     */
+    private Map<String, Quota> endpoints = new LinkedHashMap<>();
+
+    /**
+     * 单类接口的配额：每个用户每 refillPeriod 最多 capacity 次，可一次性用完
+     */
+    @Data
+    public static class Quota {
+
+        /**
+         * 路径模式（不含 context-path）
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * 限流的HTTP方法，为空时限制所有方法
+         */
+        private List<String> methods = new ArrayList<>(List.of("POST"));
+
+        /**
+         * 桶容量（突发上限）
+         */
+        private Integer capacity = 10;
+
+        /**
+         * 补满一桶所需时间
+         */
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+}
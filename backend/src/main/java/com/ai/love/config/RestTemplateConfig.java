@@ -1,17 +1,37 @@
 package com.ai.love.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * RestTemplate配置
+ * 使用带连接池的 Apache HttpClient，复用 keep-alive 连接及其 TLS 会话，避免每次调用重新握手
  */
 @Configuration
+@RequiredArgsConstructor
 public class RestTemplateConfig {
 
+    private final HttpClientConfig httpClientConfig;
+    private final ZhipuAiConfig zhipuAiConfig;
+
     @Bean
     public RestTemplate restTemplate() {
         RestTemplate restTemplate = new RestTemplate();
@@ -21,9 +41,61 @@ public class RestTemplateConfig {
 
     @Bean
     public ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(30000); // 连接超时30秒
-        factory.setReadTimeout(60000);    // 读取超时60秒
-        return factory;
+        return new HttpComponentsClientHttpRequestFactory(httpClient());
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient() {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(httpClientConfig.getConnectionRequestTimeout()))
+                // 单次请求超时取AI配置：非流式响应在生成完成前不返回数据，等同于单次调用期限
+                .setResponseTimeout(Timeout.ofMilliseconds(zhipuAiConfig.getTimeout()))
+                .build();
+
+        TimeValue defaultKeepAlive = TimeValue.ofMilliseconds(httpClientConfig.getKeepAlive());
+
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager())
+                .setDefaultRequestConfig(requestConfig)
+                // 取服务端 Keep-Alive 声明与配置保活时间中的较小值
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(keepAlive) && keepAlive.compareTo(defaultKeepAlive) < 0
+                            ? keepAlive : defaultKeepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(httpClientConfig.getIdleEvictTimeout()))
+                .build();
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(httpClientConfig.getConnectTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(httpClientConfig.getResponseTimeout()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(httpClientConfig.getValidateAfterInactivity()))
+                .setTimeToLive(TimeValue.ofMilliseconds(httpClientConfig.getTimeToLive()))
+                .build();
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(httpClientConfig.getMaxTotal())
+                .setMaxConnPerRoute(httpClientConfig.getMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setTcpNoDelay(true)
+                        .setSoKeepAlive(true)
+                        .build())
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                // 优先复用最近使用的连接，让空闲连接尽快过期回收
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .build();
+    }
+
+    /**
+     * 连接池指标（/actuator/metrics/httpcomponents.httpclient.pool.*）
+     */
+    @Bean
+    public MeterBinder httpClientPoolMetrics() {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(httpClientConnectionManager(), "zhipu-ai");
     }
 }
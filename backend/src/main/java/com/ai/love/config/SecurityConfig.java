@@ -2,7 +2,9 @@ package com.ai.love.config;
 
 import com.ai.love.security.JwtAuthenticationEntryPoint;
 import com.ai.love.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -31,9 +33,12 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CorsConfigurationSource corsConfigurationSource;
 
+    /**
+     * 密码编码器；调整强度后，旧哈希在用户下次登录时按新强度重新计算
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -58,6 +63,9 @@ public class SecurityConfig {
             
             // 配置请求授权
             .authorizeHttpRequests(auth -> auth
+                // 异步分派（SSE流式响应等）沿用原始请求的认证结果
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // 公开端点
                 .requestMatchers(
                     "/auth/login",
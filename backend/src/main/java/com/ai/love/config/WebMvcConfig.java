@@ -1,7 +1,11 @@
 package com.ai.love.config;
 
+import com.ai.love.security.RateLimitInterceptor;
+import com.ai.love.security.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -13,6 +17,9 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final FileUploadConfig fileUploadConfig;
+    private final RateLimitConfig rateLimitConfig;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
@@ -20,4 +27,19 @@ public class WebMvcConfig implements WebMvcConfigurer {
         registry.addResourceHandler(fileUploadConfig.getAccessUrlPrefix() + "/**")
                 .addResourceLocations("file:" + fileUploadConfig.getUploadDir() + "/");
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!Boolean.TRUE.equals(rateLimitConfig.getEnabled())) {
+            return;
+        }
+        // 每类接口一个限流拦截器，按用户分别计数
+        rateLimitConfig.getEndpoints().forEach((endpoint, quota) -> {
+            // 未配置路径时不注册，否则拦截器会作用于所有请求
+            if (!quota.getPaths().isEmpty()) {
+                registry.addInterceptor(new RateLimitInterceptor(endpoint, quota.getMethods(), rateLimiter, objectMapper))
+                        .addPathPatterns(quota.getPaths());
+            }
+        });
+    }
 }
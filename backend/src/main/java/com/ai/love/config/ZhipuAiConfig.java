@@ -27,6 +27,26 @@ public class ZhipuAiConfig {
      */
     private Integer maxTokens = 2048;
 
+    /**
+     * 上下文窗口令牌上限（系统提示词 + 历史消息 + 回复预留）
+     */
+    private Integer maxContextTokens = 8192;
+
+    /**
+     * 触发对话摘要的未摘要消息令牌数阈值
+     */
+    private Integer summaryTriggerTokens = 3000;
+
+    /**
+     * 摘要时保留的最近原始消息条数（不参与摘要）
+     */
+    private Integer summaryKeepMessages = 6;
+
+    /**
+     * 摘要最大令牌数
+     */
+    private Integer summaryMaxTokens = 512;
+
     /**
      * 温度参数
      */
@@ -38,17 +58,108 @@ public class ZhipuAiConfig {
     private String baseUrl = "https://open.bigmodel.cn/api/paas/v4/";
 
     /**
-     * 请求超时时间（毫秒）
+     * 单次请求超时时间（毫秒），流式请求为两次数据之间的最长间隔；
+     * 非流式请求在生成完成前不返回数据，需容纳最长回复的生成时间
      */
-    private Long timeout = 30000L;
+    private Long timeout = 60000L;
 
     /**
-     * 重试次数
+     * 重试次数（仅对429、5xx及连接失败重试，读超时不重试）
      */
     private Integer retryCount = 3;
 
+    /**
+     * 一次调用含重试的总耗时上限（毫秒），须小于 spring.mvc.async.request-timeout
+     */
+    private Long retryBudget = 150000L;
+
+    /**
+     * 重试退避基础时间（毫秒）
+     */
+    private Long retryBaseDelay = 500L;
+
+    /**
+     * 重试退避最大时间（毫秒）
+     */
+    private Long retryMaxDelay = 8000L;
+
+    /**
+     * 同时进行的最大调用数（舱壁）
+     */
+    private Integer maxConcurrentCalls = 32;
+
+    /**
+     * 等待调用许可的最长时间（毫秒）
+     */
+    private Long bulkheadWaitTimeout = 2000L;
+
+    /**
+     * 连续失败多少次后打开熔断器
+     */
+    private Integer circuitFailureThreshold = 5;
+
+    /**
+     * 熔断器打开持续时间（毫秒），之后放行试探调用
+     */
+    private Long circuitOpenDuration = 30000L;
+
     /**
      * 是否启用流式响应
      */
     private Boolean streamEnabled = false;
+
+    /**
+     * 是否启用回复缓存（相同角色、相同短上下文的请求直接复用回复）
+     */
+    private Boolean responseCacheEnabled = false;
+
+    /**
+     * 回复缓存有效期（毫秒）
+     */
+    private Long responseCacheTtl = 600000L;
+
+    /**
+     * 回复缓存最大条目数
+     */
+    private Long responseCacheMaxSize = 10000L;
+
+    /**
+     * 可缓存的最高温度，高于此温度的请求期望多样化回复，不走缓存
+     */
+    private Double responseCacheMaxTemperature = 0.9;
+
+    /**
+     * 可缓存的最大上下文消息数，仅缓存开场白等短上下文请求
+     */
+    private Integer responseCacheMaxContextMessages = 3;
+
+    /**
+     * 健康检查统计的最近调用次数
+     */
+    private Integer healthWindowSize = 100;
+
+    /**
+     * 健康检查统计的时间窗口（毫秒）
+     */
+    private Long healthWindow = 300000L;
+
+    /**
+     * 按成功率判定健康状态所需的最少调用次数
+     */
+    private Integer healthMinCalls = 10;
+
+    /**
+     * 低于此成功率判定为不可用
+     */
+    private Double healthMinSuccessRate = 0.5;
+
+    /**
+     * 窗口内无调用时是否主动探测（会消耗少量令牌）
+     */
+    private Boolean healthProbeEnabled = false;
+
+    /**
+     * 主动探测结果缓存时间（毫秒）
+     */
+    private Long healthProbeInterval = 300000L;
 }
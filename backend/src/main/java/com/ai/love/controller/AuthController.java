@@ -102,11 +102,14 @@ public class AuthController {
      * 用户登出
      */
     @PostMapping("/logout")
-    @Operation(summary = "用户登出", description = "用户登出（客户端需清除令牌）")
-    public ApiResponse<String> logout() {
-        // 由于使用JWT，服务端无状态，登出主要由客户端处理
-        // 这里可以记录登出日志或进行其他业务处理
-        log.info("用户登出: {}", authService.getCurrentUserEntity().getUsername());
+    @Operation(summary = "用户登出", description = "用户登出，当前令牌随即失效")
+    public ApiResponse<String> logout(@RequestHeader("Authorization") String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new BusinessException("无效的令牌格式");
+        }
+
+        authService.logout(authHeader.substring(7));
+        log.info("用户登出: {}", authService.getCurrentUsername());
         return ApiResponse.success("登出成功");
     }
 
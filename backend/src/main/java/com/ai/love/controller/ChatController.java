@@ -14,8 +14,10 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -46,15 +48,29 @@ public class ChatController {
      */
     @PostMapping("/conversations/{conversationId}/messages")
     @Operation(summary = "发送消息", description = "向AI角色发送消息并获取回复")
-    public ApiResponse<List<MessageResponse>> sendMessage(
+    public CompletableFuture<ApiResponse<List<MessageResponse>>> sendMessage(
             @PathVariable Long conversationId,
             @Valid @RequestBody SendMessageRequest request) {
         
-        List<Message> messages = aiChatService.sendMessage(conversationId, request.getContent());
-        List<MessageResponse> responses = messages.stream()
-                .map(MessageResponse::fromEntity)
-                .collect(Collectors.toList());
-        return ApiResponse.success("消息发送成功", responses);
+        return aiChatService.sendMessage(conversationId, request.getContent())
+                .thenApply(messages -> {
+                    List<MessageResponse> responses = messages.stream()
+                            .map(MessageResponse::fromEntity)
+                            .collect(Collectors.toList());
+                    return ApiResponse.success("消息发送成功", responses);
+                });
+    }
+
+    /**
+     * 流式发送消息
+     */
+    @PostMapping("/conversations/{conversationId}/messages/stream")
+    @Operation(summary = "流式发送消息", description = "向AI角色发送消息，并通过SSE逐段推送回复")
+    public SseEmitter streamMessage(
+            @PathVariable Long conversationId,
+            @Valid @RequestBody SendMessageRequest request) {
+        
+        return aiChatService.streamMessage(conversationId, request.getContent());
     }
 
     /**
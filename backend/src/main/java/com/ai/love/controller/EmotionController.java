@@ -1,6 +1,7 @@
 package com.ai.love.controller;
 
 import com.ai.love.common.ApiResponse;
+import com.ai.love.dto.emotion.ConversationAnalysisResponse;
 import com.ai.love.dto.emotion.EmotionAnalysisResponse;
 import com.ai.love.dto.emotion.EmotionStatsResponse;
 import com.ai.love.dto.emotion.EmotionTrendResponse;
@@ -35,6 +36,16 @@ public class EmotionController {
         return ApiResponse.success("情感分析完成", analysis);
     }
 
+    /**
+     * 批量分析对话情感
+     */
+    @PostMapping("/conversations/{conversationId}/analyze")
+    @Operation(summary = "批量分析对话情感", description = "分析指定对话中所有尚未分析的用户消息")
+    public ApiResponse<ConversationAnalysisResponse> analyzeConversation(@PathVariable Long conversationId) {
+        ConversationAnalysisResponse result = emotionAnalysisService.analyzeConversation(conversationId);
+        return ApiResponse.success("对话情感分析完成", result);
+    }
+
     /**
      * 获取对话的情感分析
      */
@@ -60,6 +60,11 @@ public class ChatResponse {
          */
         private ChatMessage message;
         
+        /**
+         * 增量消息（流式响应）
+         */
+        private ChatMessage delta;
+        
         /**
          * 完成原因
          */
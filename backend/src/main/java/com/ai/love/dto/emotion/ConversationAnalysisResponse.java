@@ -0,0 +1,17 @@
+package com.ai.love.dto.emotion;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 对话批量情感分析响应DTO
+ */
+@Data
+@Builder
+public class ConversationAnalysisResponse {
+
+    private Long conversationId;
+    private Integer pendingCount;
+    private Integer analyzedCount;
+    private Long processingTimeMs;
+}
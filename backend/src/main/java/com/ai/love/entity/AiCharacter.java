@@ -60,9 +60,13 @@ public class AiCharacter extends BaseEntity {
     @Column(name = "status", nullable = false)
     private CharacterStatus status = CharacterStatus.ACTIVE;
 
-    @Column(name = "usage_count", nullable = false)
+    // 由 UsageCounterService 增量写库，保存实体时不覆盖
+    @Column(name = "usage_count", nullable = false, updatable = false)
     private Integer usageCount = 0;
 
+    @Column(name = "total_tokens", nullable = false, updatable = false)
+    private Long totalTokens = 0L;
+
     // 关联关系
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -133,13 +137,6 @@ public class AiCharacter extends BaseEntity {
         }
     }
 
-    /**
-     * 增加使用次数
-     */
-    public void incrementUsage() {
-        this.usageCount = this.usageCount + 1;
-    }
-
     /**
      * 生成系统提示词
      */
@@ -35,16 +35,21 @@ public class Conversation extends BaseEntity {
     @Column(name = "status", nullable = false)
     private ConversationStatus status = ConversationStatus.ACTIVE;
 
-    @Column(name = "message_count", nullable = false)
+    // 由 UsageCounterService 增量写库，保存实体时不覆盖
+    @Column(name = "message_count", nullable = false, updatable = false)
     private Integer messageCount = 0;
 
-    @Column(name = "last_message_at")
+    @Column(name = "last_message_at", updatable = false)
     private LocalDateTime lastMessageAt;
 
     @Column(name = "context_summary", columnDefinition = "TEXT")
     private String contextSummary;
 
-    @Column(name = "total_tokens", nullable = false)
+    @Column(name = "summary_message_id")
+    private Long summaryMessageId;
+
+    // 由 UsageCounterService 增量写库，保存实体时不覆盖
+    @Column(name = "total_tokens", nullable = false, updatable = false)
     private Integer totalTokens = 0;
 
     @Column(name = "avg_response_time")
@@ -118,14 +123,6 @@ public class Conversation extends BaseEntity {
         }
     }
 
-    /**
-     * 更新消息统计
-     */
-    public void updateMessageStats() {
-        this.messageCount = this.messageCount + 1;
-        this.lastMessageAt = LocalDateTime.now();
-    }
-
     /**
      * 生成对话标题
      */
@@ -15,7 +15,8 @@ import lombok.EqualsAndHashCode;
 @Table(name = "messages", indexes = {
     @Index(name = "idx_conversation_id", columnList = "conversation_id"),
     @Index(name = "idx_sender_type", columnList = "sender_type"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_messages_conversation_created", columnList = "conversation_id, created_at")
 })
 public class Message extends BaseEntity {
 
@@ -56,6 +56,10 @@ public class User extends BaseEntity {
     @Column(name = "login_count", nullable = false)
     private Integer loginCount = 0;
 
+    // 由 UsageCounterService 增量写库，保存实体时不覆盖
+    @Column(name = "total_tokens", nullable = false, updatable = false)
+    private Long totalTokens = 0L;
+
     @Column(name = "email_verified", nullable = false)
     private Boolean emailVerified = false;
 
@@ -32,8 +32,13 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<ApiResponse<Object>> handleBusinessException(BusinessException ex) {
         log.warn("业务异常: {}", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(ApiResponse.error(ex.getMessage(), 400));
+        // 未指定错误码时按请求错误处理
+        HttpStatus status = ex.getCode() != null ? HttpStatus.resolve(ex.getCode()) : null;
+        if (status == null) {
+            status = HttpStatus.BAD_REQUEST;
+        }
+        return ResponseEntity.status(status)
+                .body(ApiResponse.error(ex.getMessage(), status.value()));
     }
 
     /**
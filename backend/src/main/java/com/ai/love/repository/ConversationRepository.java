@@ -39,6 +39,12 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
      */
     Page<Conversation> findByUserIdAndCharacterId(Long userId, Long characterId, Pageable pageable);
 
+    /**
+     * 查找对话所属用户ID
+     */
+    @Query("SELECT c.user.id FROM Conversation c WHERE c.id = :conversationId")
+    Optional<Long> findUserIdById(@Param("conversationId") Long conversationId);
+
     /**
      * 查找用户的活跃对话
      */
@@ -75,6 +81,16 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     @Query("UPDATE Conversation c SET c.messageCount = c.messageCount + 1, c.lastMessageAt = :messageTime WHERE c.id = :conversationId")
     int updateMessageStats(@Param("conversationId") Long conversationId, @Param("messageTime") LocalDateTime messageTime);
 
+    /**
+     * 更新对话上下文摘要（仅当摘要覆盖范围前进时生效）
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.contextSummary = :summary, c.summaryMessageId = :summaryMessageId " +
+           "WHERE c.id = :conversationId AND (c.summaryMessageId IS NULL OR c.summaryMessageId < :summaryMessageId)")
+    int updateContextSummary(@Param("conversationId") Long conversationId,
+                             @Param("summary") String summary,
+                             @Param("summaryMessageId") Long summaryMessageId);
+
     /**
      * 统计用户的对话数量
      */
@@ -71,12 +71,6 @@ public interface EmotionAnalysisRepository extends JpaRepository<EmotionAnalysis
     @Query("SELECT COUNT(e) FROM EmotionAnalysis e WHERE e.conversation.user.id = :userId AND e.valence < -0.1")
     long countNegativeEmotions(@Param("userId") Long userId);
 
-    /**
-     * 查找用户的所有关键词
-     */
-    @Query("SELECT e.keywords FROM EmotionAnalysis e WHERE e.conversation.user.id = :userId AND e.keywords IS NOT NULL AND e.keywords != ''")
-    List<String> findAllKeywordsByUserId(@Param("userId") Long userId);
-
     /**
      * 查找高强度情感分析
      */
@@ -117,14 +111,6 @@ public interface EmotionAnalysisRepository extends JpaRepository<EmotionAnalysis
                                                                  @Param("endDate") LocalDateTime endDate,
                                                                  Pageable pageable);
 
-    /**
-     * 查找用户的情感趋势
-     */
-    @Query("SELECT DATE(e.createdAt), AVG(e.valence), AVG(e.intensity) FROM EmotionAnalysis e " +
-           "WHERE e.conversation.user.id = :userId AND e.createdAt >= :startDate " +
-           "GROUP BY DATE(e.createdAt) ORDER BY DATE(e.createdAt)")
-    List<Object[]> getEmotionTrendByUserId(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate);
-
     /**
      * 查找最常见的情感类型
      */
@@ -0,0 +1,32 @@
+package com.ai.love.repository;
+
+import com.ai.love.entity.Message;
+
+/**
+ * 消息历史投影
+ * 仅包含构建对话上下文所需的字段，避免加载完整消息实体
+ */
+public interface MessageHistoryView {
+
+    Long getId();
+
+    Message.SenderType getSenderType();
+
+    String getContent();
+
+    Integer getTokenCount();
+
+    /**
+     * 是否为用户消息
+     */
+    default boolean isUserMessage() {
+        return Message.SenderType.USER.equals(getSenderType());
+    }
+
+    /**
+     * 是否为系统消息
+     */
+    default boolean isSystemMessage() {
+        return Message.SenderType.SYSTEM.equals(getSenderType());
+    }
+}
@@ -40,6 +40,38 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.createdAt DESC")
     Page<Message> findLatestMessagesByConversationId(@Param("conversationId") Long conversationId, Pageable pageable);
 
+    /**
+     * 查找对话的最近历史（按时间倒序，仅投影上下文所需字段）
+     * 走 idx_messages_conversation_created (conversation_id, created_at) 索引反向扫描
+     */
+    @Query("SELECT m.id AS id, m.senderType AS senderType, m.content AS content, m.tokenCount AS tokenCount " +
+           "FROM Message m WHERE m.conversation.id = :conversationId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageHistoryView> findRecentHistory(@Param("conversationId") Long conversationId, Pageable pageable);
+
+    /**
+     * 查找指定消息之后的历史（按时间正序，仅投影上下文所需字段）
+     */
+    @Query("SELECT m.id AS id, m.senderType AS senderType, m.content AS content, m.tokenCount AS tokenCount " +
+           "FROM Message m WHERE m.conversation.id = :conversationId AND m.id > :afterId " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageHistoryView> findHistoryAfter(@Param("conversationId") Long conversationId,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    /**
+     * 分页查找对话中ID大于 afterId、尚未做情感分析的指定发送者消息（反连接 emotion_analysis，按ID正序）
+     */
+    @Query("SELECT m.id AS id, m.senderType AS senderType, m.content AS content, m.tokenCount AS tokenCount " +
+           "FROM Message m WHERE m.conversation.id = :conversationId AND m.senderType = :senderType " +
+           "AND m.id > :afterId " +
+           "AND NOT EXISTS (SELECT 1 FROM EmotionAnalysis e WHERE e.message.id = m.id) " +
+           "ORDER BY m.id ASC")
+    List<MessageHistoryView> findUnanalyzedMessages(@Param("conversationId") Long conversationId,
+                                                    @Param("senderType") Message.SenderType senderType,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
     /**
      * 查找对话的最后一条消息
      */
@@ -23,6 +23,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(String username);
 
+    /**
+     * 查询用户状态（供认证过滤器做状态校验，仅投影一列）
+     */
+    @Query("SELECT u.status FROM User u WHERE u.id = :userId")
+    Optional<User.UserStatus> findStatusById(@Param("userId") Long userId);
+
     /**
      * 根据邮箱查找用户
      */
@@ -69,11 +75,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findRecentlyActiveUsers(@Param("since") LocalDateTime since, Pageable pageable);
 
     /**
-     * 更新用户最后登录时间
+     * 更新密码哈希（哈希期间密码未被修改时才更新）
      */
     @Modifying
-    @Query("UPDATE User u SET u.lastLoginAt = :loginTime, u.loginCount = u.loginCount + 1 WHERE u.id = :userId")
-    int updateLoginInfo(@Param("userId") Long userId, @Param("loginTime") LocalDateTime loginTime);
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :userId AND u.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("userId") Long userId, @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash);
 
     /**
      * 统计用户总数
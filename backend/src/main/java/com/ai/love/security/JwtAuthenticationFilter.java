@@ -1,5 +1,7 @@
 package com.ai.love.security;
 
+import com.ai.love.entity.User;
+import com.ai.love.service.UserDetailsServiceImpl;
 import com.ai.love.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,8 +11,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -27,7 +27,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+    private final TokenRevocationStore tokenRevocationStore;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -37,21 +38,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt)) {
-                String username = jwtUtil.getUsernameFromToken(jwt);
-                
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    
-                    if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+            if (StringUtils.hasText(jwt) && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // 验签并解析一次（已验证的令牌命中缓存），主体直接由声明构建，不再按用户名查询用户
+                JwtUtil.TokenClaims claims = jwtUtil.parseToken(jwt);
+                Long userId = claims.userId();
+                String username = claims.username();
+
+                if (claims.jti() != null && tokenRevocationStore.isRevoked(claims.jti())) {
+                    log.warn("令牌已吊销: userId={}", userId);
+                } else if (userId != null && username != null) {
+                    User.UserStatus status = userStatusCache.getStatus(userId).orElse(null);
+
+                    if (status == User.UserStatus.ACTIVE) {
+                        UserDetailsServiceImpl.UserPrincipal principal =
+                            UserDetailsServiceImpl.UserPrincipal.fromToken(userId, username, status, claims.roles());
                         UsernamePasswordAuthenticationToken authentication = 
                             new UsernamePasswordAuthenticationToken(
-                                userDetails, 
+                                principal, 
                                 null, 
-                                userDetails.getAuthorities()
+                                principal.getAuthorities()
                             );
                         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authentication);
+                    } else {
+                        log.warn("用户状态不可用，拒绝令牌: userId={}, status={}", userId, status);
                     }
                 }
             }
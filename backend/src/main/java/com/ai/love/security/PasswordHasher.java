@@ -0,0 +1,160 @@
+package com.ai.love.security;
+
+import com.ai.love.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 密码哈希
+ * BCrypt计算全部在有界的密码哈希线程池中执行，同时占用的CPU核数固定；
+ * 排队已满时直接以429拒绝，排队加计算超过等待上限时以503返回，登录高峰时多余的请求快速失败而不是拖慢所有请求
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final int strength;
+    private final long waitTimeoutMs;
+    /**
+     * 用户不存在时用于比对的哈希，使响应时间与用户存在时一致
+     */
+    private final String dummyHash;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+    private final Counter timeoutCounter;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                          @Value("${app.auth.bcrypt-strength:10}") int strength,
+                          @Value("${app.auth.password-hash-timeout:5000}") long waitTimeoutMs,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.strength = strength;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejectedCounter = Counter.builder("auth.password.hash.rejected")
+                .description("哈希队列已满被拒绝的请求数")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("auth.password.hash.timeout")
+                .description("等待哈希超时的请求数")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("等待哈希的请求数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 计算密码哈希
+     */
+    public String encode(String rawPassword) {
+        return await(submit(encodeTimer, () -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * 校验密码；encodedPassword 为 null（用户不存在）时仍做一次等价的比对
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        String encoded = encodedPassword != null ? encodedPassword : dummyHash;
+        boolean matched = await(submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encoded)));
+        return matched && encodedPassword != null;
+    }
+
+    /**
+     * 哈希强度与当前配置不同（调高或调低）时需要重新计算
+     */
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return passwordEncoder.upgradeEncoding(encodedPassword);
+        }
+        return Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * 在后台按当前强度重新计算哈希，完成后回调；哈希线程池繁忙时跳过，下次登录再试
+     */
+    public void rehashAsync(String rawPassword, Consumer<String> onHashed) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onHashed.accept(encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+                } catch (Exception e) {
+                    log.warn("密码哈希升级失败: {}", e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.debug("密码哈希线程池繁忙，跳过哈希升级");
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            log.warn("密码哈希队列已满，拒绝请求");
+            throw new BusinessException("请求过多，请稍后重试", HTTP_TOO_MANY_REQUESTS);
+        }
+    }
+
+    /**
+     * 等待哈希结果，超过等待上限时放弃（未开始的任务随之取消）
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            timeoutCounter.increment();
+            log.warn("等待密码哈希超过{}ms，放弃请求", waitTimeoutMs);
+            throw new BusinessException("服务繁忙，请稍后重试", HTTP_SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("密码哈希被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("密码哈希失败", e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("密码哈希耗时")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
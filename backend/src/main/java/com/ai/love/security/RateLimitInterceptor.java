@@ -0,0 +1,77 @@
+package com.ai.love.security;
+
+import com.ai.love.common.ApiResponse;
+import com.ai.love.service.UserDetailsServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口限流拦截器
+ * 一类接口一个实例，按JWT中的用户ID取令牌；超限时返回429并在 Retry-After 中给出需等待的秒数
+ */
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final String endpoint;
+    private final Set<String> methods;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitInterceptor(String endpoint, Iterable<String> methods, RateLimiter rateLimiter,
+                                ObjectMapper objectMapper) {
+        this.endpoint = endpoint;
+        Set<String> upperCased = new HashSet<>();
+        methods.forEach(method -> upperCased.add(method.toUpperCase(Locale.ROOT)));
+        this.methods = Set.copyOf(upperCased);
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        // 异步分派（SSE流式响应）沿用原始请求，不重复计数
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        if (!methods.isEmpty() && !methods.contains(request.getMethod())) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null
+                || !(authentication.getPrincipal() instanceof UserDetailsServiceImpl.UserPrincipal principal)) {
+            return true;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(endpoint, principal.getId());
+        if (waitNanos == 0) {
+            return true;
+        }
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.warn("请求频率超限: 类别={}, 用户ID={}, 需等待={}秒", endpoint, principal.getId(), retryAfterSeconds);
+        response.setStatus(HTTP_TOO_MANY_REQUESTS);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("请求过于频繁，请" + retryAfterSeconds + "秒后重试", HTTP_TOO_MANY_REQUESTS));
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ai.love.security;
+
+import com.ai.love.config.RateLimitConfig;
+import com.ai.love.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按用户和接口类别限流
+ * 每类接口每个用户一个令牌桶，保存在有界的内存缓存中；桶闲置满一个补满周期后已恢复为满桶，此时淘汰不影响限流结果
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private final Map<String, EndpointLimiter> limiters;
+
+    public RateLimiter(RateLimitConfig rateLimitConfig, MeterRegistry meterRegistry) {
+        Map<String, EndpointLimiter> configured = new HashMap<>();
+        rateLimitConfig.getEndpoints().forEach((endpoint, quota) -> {
+            configured.put(endpoint, new EndpointLimiter(endpoint, quota, rateLimitConfig.getMaxBuckets(), meterRegistry));
+            log.info("接口限流已配置: 类别={}, 容量={}, 补满周期={}", endpoint, quota.getCapacity(), quota.getRefillPeriod());
+        });
+        this.limiters = Map.copyOf(configured);
+    }
+
+    /**
+     * 为用户在指定类别的接口上取一个令牌
+     *
+     * @return 0 表示放行；否则为需要等待的纳秒数
+     */
+    public long tryAcquire(String endpoint, Long userId) {
+        EndpointLimiter limiter = limiters.get(endpoint);
+        return limiter != null ? limiter.tryAcquire(userId) : 0;
+    }
+
+    private static final class EndpointLimiter {
+
+        private final int capacity;
+        private final Duration refillPeriod;
+        private final Cache<Long, TokenBucket> buckets;
+        private final Counter rejectedCounter;
+
+        private EndpointLimiter(String endpoint, RateLimitConfig.Quota quota, long maxBuckets,
+                                MeterRegistry meterRegistry) {
+            this.capacity = quota.getCapacity();
+            this.refillPeriod = quota.getRefillPeriod();
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxBuckets)
+                    .expireAfterAccess(refillPeriod)
+                    .build();
+            this.rejectedCounter = Counter.builder("rate.limit.rejected")
+                    .description("限流拒绝的请求数")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+        }
+
+        private long tryAcquire(Long userId) {
+            long now = System.nanoTime();
+            TokenBucket bucket = buckets.get(userId, id -> new TokenBucket(capacity, refillPeriod, now));
+            long wait = bucket.tryAcquire(now);
+            if (wait > 0) {
+                rejectedCounter.increment();
+            }
+            return wait;
+        }
+    }
+}
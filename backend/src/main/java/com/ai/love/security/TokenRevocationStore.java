@@ -0,0 +1,151 @@
+package com.ai.love.security;
+
+import com.ai.love.util.BloomFilter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 令牌吊销表（revoked_tokens）
+ * 已吊销的 jti 持久化在数据库，内存中的布隆过滤器在前：未吊销的令牌只需一次过滤器探测，
+ * 过滤器命中（已吊销或误判）时才查询数据库，查询结果短期缓存。
+ * 其他实例的吊销由定时增量同步加入过滤器；过期记录定期清理，并据此重建过滤器
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore {
+
+    /**
+     * 增量同步回看的时间，覆盖事务提交延迟
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private static final String INSERT_REVOKED =
+            "INSERT IGNORE INTO revoked_tokens (jti, user_id, expires_at) VALUES (?, ?, ?)";
+    private static final String COUNT_REVOKED =
+            "SELECT COUNT(*) FROM revoked_tokens WHERE jti = ?";
+    private static final String SELECT_LIVE =
+            "SELECT jti, revoked_at FROM revoked_tokens WHERE expires_at > ?";
+    private static final String SELECT_SINCE =
+            "SELECT jti, revoked_at FROM revoked_tokens WHERE revoked_at >= ?";
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM revoked_tokens WHERE expires_at <= ? LIMIT " + DELETE_BATCH_SIZE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedTokens;
+    private final double falsePositiveRate;
+    private final AtomicReference<BloomFilter> filter = new AtomicReference<>();
+    private final LoadingCache<String, Boolean> confirmed;
+
+    /**
+     * 已同步到的最大吊销时间（数据库时间）
+     */
+    private Timestamp syncWatermark;
+
+    public TokenRevocationStore(JdbcTemplate jdbcTemplate,
+                                @Value("${app.jwt.revocation-expected-tokens:100000}") long expectedTokens,
+                                @Value("${app.jwt.revocation-false-positive-rate:0.001}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .build(jti -> {
+                    Integer count = jdbcTemplate.queryForObject(COUNT_REVOKED, Integer.class, jti);
+                    return count != null && count > 0;
+                });
+        rebuild();
+    }
+
+    /**
+     * 令牌是否已被吊销
+     */
+    public boolean isRevoked(String jti) {
+        if (!filter.get().mightContain(jti)) {
+            return false;
+        }
+        return confirmed.get(jti);
+    }
+
+    /**
+     * 吊销令牌
+     *
+     * @return 本次是否新吊销；令牌此前已被吊销时返回 false
+     */
+    public boolean revoke(String jti, Long userId, Instant expiresAt) {
+        filter.get().put(jti);
+        int inserted = jdbcTemplate.update(INSERT_REVOKED, jti, userId, Timestamp.from(expiresAt));
+        confirmed.invalidate(jti);
+        return inserted > 0;
+    }
+
+    /**
+     * 把其他实例新吊销的令牌加入过滤器
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-sync-interval:10000}")
+    public synchronized void sync() {
+        Timestamp since = new Timestamp(syncWatermark.getTime() - SYNC_OVERLAP.toMillis());
+        BloomFilter current = filter.get();
+        jdbcTemplate.query(SELECT_SINCE, rs -> {
+            String jti = rs.getString("jti");
+            current.put(jti);
+            confirmed.invalidate(jti);
+            advanceWatermark(rs.getTimestamp("revoked_at"));
+        }, since);
+    }
+
+    /**
+     * 删除已过期的吊销记录，并按剩余记录重建过滤器（布隆过滤器不支持删除）
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-compaction-interval:3600000}",
+            initialDelayString = "${app.jwt.revocation-compaction-interval:3600000}")
+    public void compact() {
+        long startTime = System.currentTimeMillis();
+        Timestamp now = Timestamp.from(Instant.now());
+        int deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update(DELETE_EXPIRED, now);
+            deleted += batch;
+        } while (batch == DELETE_BATCH_SIZE);
+        int live = rebuild();
+        log.info("令牌吊销表清理完成: 删除={}, 剩余={}, 耗时={}ms", deleted, live,
+                System.currentTimeMillis() - startTime);
+    }
+
+    private synchronized int rebuild() {
+        syncWatermark = new Timestamp(0);
+        List<String> live = new ArrayList<>();
+        jdbcTemplate.query(SELECT_LIVE, rs -> {
+            live.add(rs.getString("jti"));
+            advanceWatermark(rs.getTimestamp("revoked_at"));
+        }, Timestamp.from(Instant.now()));
+
+        // 按实际数量留出余量，避免吊销增多后误判率上升
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedTokens, live.size() * 2L), falsePositiveRate);
+        live.forEach(rebuilt::put);
+        filter.set(rebuilt);
+        // 重建期间本实例新吊销的令牌可能只进入了旧过滤器，补同步一次
+        sync();
+        return live.size();
+    }
+
+    private void advanceWatermark(Timestamp revokedAt) {
+        if (revokedAt != null && revokedAt.after(syncWatermark)) {
+            syncWatermark = revokedAt;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ai.love.security;
+
+import com.ai.love.entity.User;
+import com.ai.love.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 用户状态缓存
+ * 认证过滤器据此拒绝已禁用/删除用户的令牌；短TTL、有界。
+ * 应用内没有修改用户状态的入口（状态由运维直接在库中修改），因此不做主动失效，状态变更最迟在TTL后生效
+ */
+@Component
+public class UserStatusCache {
+
+    private static final String CACHE_NAME = "userStatus";
+
+    private final LoadingCache<Long, Optional<User.UserStatus>> cache;
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${app.jwt.user-status-cache-ttl:30000}") long ttl,
+                           @Value("${app.jwt.user-status-cache-max-size:100000}") long maxSize,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build(userRepository::findStatusById);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 获取用户状态，用户不存在时返回空
+     */
+    public Optional<User.UserStatus> getStatus(Long userId) {
+        return cache.get(userId);
+    }
+}
@@ -4,7 +4,6 @@ import com.ai.love.dto.character.CreateCharacterRequest;
 import com.ai.love.dto.character.UpdateCharacterRequest;
 import com.ai.love.dto.character.CharacterResponse;
 import com.ai.love.entity.AiCharacter;
-import com.ai.love.entity.User;
 import com.ai.love.exception.BusinessException;
 import com.ai.love.exception.ResourceNotFoundException;
 import com.ai.love.repository.AiCharacterRepository;
@@ -35,21 +34,21 @@ public class AiCharacterService {
      */
     @Transactional
     public CharacterResponse createCharacter(CreateCharacterRequest request) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         // 检查角色名称是否重复
-        if (aiCharacterRepository.existsByUserIdAndName(currentUser.getId(), request.getName())) {
+        if (aiCharacterRepository.existsByUserIdAndName(currentUserId, request.getName())) {
             throw new BusinessException("角色名称已存在");
         }
         
         // 检查用户角色数量限制
-        long characterCount = aiCharacterRepository.countByUserId(currentUser.getId());
+        long characterCount = aiCharacterRepository.countByUserId(currentUserId);
         if (characterCount >= 10) { // 限制每个用户最多10个角色
             throw new BusinessException("角色数量已达上限（10个）");
         }
         
         AiCharacter character = new AiCharacter();
-        character.setUser(currentUser);
+        character.setUser(authService.getCurrentUserReference());
         character.setName(request.getName());
         character.setDescription(request.getDescription());
         character.setAvatarUrl(request.getAvatarUrl());
@@ -63,7 +62,7 @@ public class AiCharacterService {
         character.setStatus(AiCharacter.CharacterStatus.ACTIVE);
         
         AiCharacter savedCharacter = aiCharacterRepository.save(character);
-        log.info("AI角色创建成功: 用户={}, 角色={}", currentUser.getUsername(), savedCharacter.getName());
+        log.info("AI角色创建成功: 用户={}, 角色={}", authService.getCurrentUsername(), savedCharacter.getName());
         
         return CharacterResponse.fromEntity(savedCharacter);
     }
@@ -73,19 +72,19 @@ public class AiCharacterService {
      */
     @Transactional
     public CharacterResponse updateCharacter(Long characterId, UpdateCharacterRequest request) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         AiCharacter character = aiCharacterRepository.findById(characterId)
                 .orElseThrow(() -> new ResourceNotFoundException("AI角色不存在"));
         
         // 验证角色所有权
-        if (!character.getUser().getId().equals(currentUser.getId())) {
+        if (!character.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权修改此AI角色");
         }
         
         // 检查名称重复（排除当前角色）
         if (request.getName() != null && !request.getName().equals(character.getName())) {
-            if (aiCharacterRepository.existsByUserIdAndName(currentUser.getId(), request.getName())) {
+            if (aiCharacterRepository.existsByUserIdAndName(currentUserId, request.getName())) {
                 throw new BusinessException("角色名称已存在");
             }
             character.setName(request.getName());
@@ -121,7 +120,7 @@ public class AiCharacterService {
         }
         
         AiCharacter updatedCharacter = aiCharacterRepository.save(character);
-        log.info("AI角色更新成功: 用户={}, 角色={}", currentUser.getUsername(), updatedCharacter.getName());
+        log.info("AI角色更新成功: 用户={}, 角色={}", authService.getCurrentUsername(), updatedCharacter.getName());
         
         return CharacterResponse.fromEntity(updatedCharacter);
     }
@@ -131,8 +130,8 @@ public class AiCharacterService {
      */
     @Transactional(readOnly = true)
     public List<CharacterResponse> getUserCharacters() {
-        User currentUser = authService.getCurrentUserEntity();
-        List<AiCharacter> characters = aiCharacterRepository.findActiveCharactersByUserId(currentUser.getId());
+        Long currentUserId = authService.getCurrentUserId();
+        List<AiCharacter> characters = aiCharacterRepository.findActiveCharactersByUserId(currentUserId);
         
         return characters.stream()
                 .map(CharacterResponse::fromEntity)
@@ -144,13 +143,13 @@ public class AiCharacterService {
      */
     @Transactional(readOnly = true)
     public CharacterResponse getCharacter(Long characterId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         AiCharacter character = aiCharacterRepository.findById(characterId)
                 .orElseThrow(() -> new ResourceNotFoundException("AI角色不存在"));
         
         // 验证角色所有权
-        if (!character.getUser().getId().equals(currentUser.getId())) {
+        if (!character.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权访问此AI角色");
         }
         
@@ -162,13 +161,13 @@ public class AiCharacterService {
      */
     @Transactional
     public void deleteCharacter(Long characterId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         AiCharacter character = aiCharacterRepository.findById(characterId)
                 .orElseThrow(() -> new ResourceNotFoundException("AI角色不存在"));
         
         // 验证角色所有权
-        if (!character.getUser().getId().equals(currentUser.getId())) {
+        if (!character.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权删除此AI角色");
         }
         
@@ -176,7 +175,7 @@ public class AiCharacterService {
         character.setStatus(AiCharacter.CharacterStatus.DELETED);
         aiCharacterRepository.save(character);
         
-        log.info("AI角色删除成功: 用户={}, 角色={}", currentUser.getUsername(), character.getName());
+        log.info("AI角色删除成功: 用户={}, 角色={}", authService.getCurrentUsername(), character.getName());
     }
 
     /**
@@ -184,19 +183,19 @@ public class AiCharacterService {
      */
     @Transactional(readOnly = true)
     public String testCharacter(Long characterId, String testMessage) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         AiCharacter character = aiCharacterRepository.findById(characterId)
                 .orElseThrow(() -> new ResourceNotFoundException("AI角色不存在"));
         
         // 验证角色所有权
-        if (!character.getUser().getId().equals(currentUser.getId())) {
+        if (!character.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权测试此AI角色");
         }
         
         try {
             String response = zhipuAiClient.chatWithCharacter(testMessage, character.generateSystemPrompt());
-            log.info("AI角色测试成功: 用户={}, 角色={}", currentUser.getUsername(), character.getName());
+            log.info("AI角色测试成功: 用户={}, 角色={}", authService.getCurrentUsername(), character.getName());
             return response;
         } catch (Exception e) {
             log.error("AI角色测试失败: ", e);
@@ -227,24 +226,24 @@ public class AiCharacterService {
      */
     @Transactional
     public CharacterResponse cloneCharacter(Long characterId, String newName) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         AiCharacter originalCharacter = aiCharacterRepository.findById(characterId)
                 .orElseThrow(() -> new ResourceNotFoundException("AI角色不存在"));
         
         // 验证角色所有权
-        if (!originalCharacter.getUser().getId().equals(currentUser.getId())) {
+        if (!originalCharacter.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权复制此AI角色");
         }
         
         // 检查新名称是否重复
-        if (aiCharacterRepository.existsByUserIdAndName(currentUser.getId(), newName)) {
+        if (aiCharacterRepository.existsByUserIdAndName(currentUserId, newName)) {
             throw new BusinessException("角色名称已存在");
         }
         
         // 创建副本
         AiCharacter clonedCharacter = new AiCharacter();
-        clonedCharacter.setUser(currentUser);
+        clonedCharacter.setUser(authService.getCurrentUserReference());
         clonedCharacter.setName(newName);
         clonedCharacter.setDescription(originalCharacter.getDescription());
         clonedCharacter.setAvatarUrl(originalCharacter.getAvatarUrl());
@@ -259,7 +258,7 @@ public class AiCharacterService {
         
         AiCharacter savedCharacter = aiCharacterRepository.save(clonedCharacter);
         log.info("AI角色复制成功: 用户={}, 原角色={}, 新角色={}", 
-                currentUser.getUsername(), originalCharacter.getName(), savedCharacter.getName());
+                authService.getCurrentUsername(), originalCharacter.getName(), savedCharacter.getName());
         
         return CharacterResponse.fromEntity(savedCharacter);
     }
@@ -1,22 +1,36 @@
 package com.ai.love.service;
 
 import com.ai.love.dto.ai.ChatMessage;
+import com.ai.love.dto.ai.ChatResponse;
+import com.ai.love.dto.chat.MessageResponse;
 import com.ai.love.entity.AiCharacter;
 import com.ai.love.entity.Conversation;
 import com.ai.love.entity.Message;
-import com.ai.love.entity.User;
 import com.ai.love.exception.BusinessException;
 import com.ai.love.repository.AiCharacterRepository;
 import com.ai.love.repository.ConversationRepository;
+import com.ai.love.repository.MessageHistoryView;
 import com.ai.love.repository.MessageRepository;
+import com.ai.love.util.TokenEstimator;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * AI对话服务
@@ -26,95 +40,261 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AiChatService {
 
+    /**
+     * SSE连接超时时间（毫秒）
+     */
+    private static final long STREAM_TIMEOUT_MS = 180_000L;
+
     private final ZhipuAiClient zhipuAiClient;
     private final AuthService authService;
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
     private final AiCharacterRepository aiCharacterRepository;
+    private final ChatContextBuilder chatContextBuilder;
+    private final ConversationSummaryService conversationSummaryService;
+    private final ZhipuAiHealthIndicator zhipuAiHealthIndicator;
+    private final UsageCounterService usageCounterService;
+    private final TokenEstimator tokenEstimator;
+    private final EmotionAnalysisQueue emotionAnalysisQueue;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("aiChatExecutor")
+    private final ThreadPoolTaskExecutor aiChatExecutor;
 
     /**
      * 发送消息并获取AI回复
+     * 在请求线程内用短事务校验并保存用户消息，模型调用交给AI对话线程池执行，
+     * 调用期间既不占用Web线程也不占用数据库连接，回复再用短事务保存；
+     * 线程池拒绝或模型调用失败时撤销已保存的用户消息，与整体回滚的效果一致
      */
-    @Transactional
-    public List<Message> sendMessage(Long conversationId, String userMessage) {
-        // 获取当前用户
-        User currentUser = authService.getCurrentUserEntity();
-        
-        // 获取对话
-        Conversation conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new BusinessException("对话不存在"));
-        
-        // 验证对话所有权
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
-            throw new BusinessException("无权访问此对话");
-        }
-        
-        // 获取AI角色
-        AiCharacter character = conversation.getCharacter();
-        if (character == null) {
-            throw new BusinessException("AI角色不存在");
+    public CompletableFuture<List<Message>> sendMessage(Long conversationId, String userMessage) {
+        ChatTurn turn = transactionTemplate.execute(status -> prepareTurn(conversationId, userMessage));
+
+        try {
+            return CompletableFuture.supplyAsync(() -> reply(turn), aiChatExecutor);
+        } catch (TaskRejectedException e) {
+            log.warn("AI对话线程池已满，拒绝请求: 对话ID={}", conversationId);
+            discardTurn(turn);
+            throw new BusinessException("AI服务繁忙，请稍后重试", 503);
         }
+    }
 
+    /**
+     * 调用模型生成回复并持久化（事务外调用模型）
+     */
+    private List<Message> reply(ChatTurn turn) {
         try {
-            long startTime = System.currentTimeMillis();
-            
-            // 保存用户消息
-            Message userMsg = saveUserMessage(conversation, userMessage);
-            
-            // 构建对话历史
-            List<ChatMessage> chatHistory = buildChatHistory(conversation);
-            
             // 获取AI回复
-            String aiResponse = zhipuAiClient.chatWithCharacter(
-                    userMessage, 
-                    character.generateSystemPrompt()
+            ChatResponse response = zhipuAiClient.chat(
+                    turn.getPromptMessages(),
+                    turn.getTemperature(),
+                    turn.getMaxTokens(),
+                    turn.getSystemPrompt()
             );
+            String aiResponse = zhipuAiClient.extractContent(response);
             
-            long processingTime = System.currentTimeMillis() - startTime;
-            
-            // 保存AI回复
-            Message aiMsg = saveAiMessage(conversation, aiResponse, processingTime);
+            long processingTime = System.currentTimeMillis() - turn.getStartTime();
             
-            // 更新对话统计
-            conversation.updateMessageStats();
-            conversationRepository.save(conversation);
-            
-            // 更新角色使用次数
-            character.incrementUsage();
-            aiCharacterRepository.save(character);
+            // 保存AI回复并更新统计
+            Message aiMsg = transactionTemplate.execute(
+                    status -> completeTurn(turn, aiResponse, response.getUsage(), processingTime));
             
             log.info("AI对话完成: 用户={}, 角色={}, 处理时间={}ms", 
-                    currentUser.getUsername(), character.getName(), processingTime);
+                    turn.getUsername(), turn.getCharacterName(), processingTime);
             
             // 返回用户消息和AI回复消息
             List<Message> messages = new ArrayList<>();
-            messages.add(userMsg);
+            messages.add(turn.getUserMessage());
             messages.add(aiMsg);
             return messages;
             
+        } catch (BusinessException e) {
+            discardTurn(turn);
+            throw e;
         } catch (Exception e) {
             log.error("AI对话失败: ", e);
+            discardTurn(turn);
             throw new BusinessException("AI对话失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 发送消息并通过SSE流式推送AI回复
+     * 事件：user（已保存的用户消息）、delta（增量文本）、done（已保存的AI消息）、error（失败原因）
+     */
+    public SseEmitter streamMessage(Long conversationId, String userMessage) {
+        // 在请求线程内完成校验并保存用户消息（依赖当前登录上下文）
+        ChatTurn turn = transactionTemplate.execute(status -> prepareTurn(conversationId, userMessage));
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        sendEvent(emitter, "user", MessageResponse.fromEntity(turn.getUserMessage()));
+
+        try {
+            aiChatExecutor.execute(() -> streamReply(turn, emitter));
+        } catch (TaskRejectedException e) {
+            log.warn("AI对话线程池已满，拒绝流式请求: 对话ID={}", conversationId);
+            discardTurn(turn);
+            sendEvent(emitter, "error", Map.of("message", "AI服务繁忙，请稍后重试"));
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * 调用模型流式生成回复，逐段推送给客户端，完成后持久化AI消息
+     */
+    private void streamReply(ChatTurn turn, SseEmitter emitter) {
+        // 客户端断开后停止推送，但继续生成并保存完整回复
+        AtomicBoolean clientConnected = new AtomicBoolean(true);
+
+        try {
+            ChatResponse response = zhipuAiClient.streamChat(
+                    turn.getPromptMessages(),
+                    turn.getTemperature(),
+                    turn.getMaxTokens(),
+                    turn.getSystemPrompt(),
+                    delta -> {
+                        if (clientConnected.get() && !sendEvent(emitter, "delta", Map.of("content", delta))) {
+                            clientConnected.set(false);
+                        }
+                    }
+            );
+            String aiResponse = zhipuAiClient.extractContent(response);
+
+            long processingTime = System.currentTimeMillis() - turn.getStartTime();
+            Message aiMsg = transactionTemplate.execute(
+                    status -> completeTurn(turn, aiResponse, response.getUsage(), processingTime));
+
+            log.info("AI流式对话完成: 用户={}, 角色={}, 处理时间={}ms", 
+                    turn.getUsername(), turn.getCharacterName(), processingTime);
+
+            sendEvent(emitter, "done", MessageResponse.fromEntity(aiMsg));
+            emitter.complete();
+
+        } catch (Exception e) {
+            log.error("AI流式对话失败: ", e);
+            discardTurn(turn);
+            sendEvent(emitter, "error", Map.of("message", "AI对话失败: " + e.getMessage()));
+            emitter.complete();
+        }
+    }
+
+    /**
+     * 推送SSE事件，客户端已断开时返回false
+     */
+    private boolean sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("SSE推送失败，客户端可能已断开: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 开始一轮对话：校验对话归属、保存用户消息并构建提示词上下文
+     */
+    private ChatTurn prepareTurn(Long conversationId, String userMessage) {
+        // 获取当前用户
+        Long currentUserId = authService.getCurrentUserId();
+        
+        // 获取对话
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new BusinessException("对话不存在"));
+        
+        // 验证对话所有权
+        if (!conversation.getUser().getId().equals(currentUserId)) {
+            throw new BusinessException("无权访问此对话");
+        }
+        
+        // 获取AI角色
+        AiCharacter character = conversation.getCharacter();
+        if (character == null) {
+            throw new BusinessException("AI角色不存在");
+        }
+
+        long startTime = System.currentTimeMillis();
+        
+        // 保存用户消息；消息数与情感分析在AI回复保存后才计入，本轮失败时只需删除这条消息
+        Message userMsg = saveUserMessage(conversation, userMessage);
+
+        // 对话设置优先，其次使用角色设置
+        Double temperature = conversation.getAiTemperature() != null
+                ? conversation.getAiTemperature() : character.getTemperature();
+        Integer maxTokens = conversation.getAiMaxTokens() != null
+                ? conversation.getAiMaxTokens() : character.getMaxTokens();
+        String systemPrompt = withContextSummary(character.generateSystemPrompt(), conversation.getContextSummary());
+
+        // 构建对话历史，并按实际提示词大小收紧回复上限
+        List<ChatMessage> promptMessages = buildChatHistory(conversation, userMsg, systemPrompt, maxTokens);
+        maxTokens = chatContextBuilder.fitReplyTokens(systemPrompt, promptMessages, maxTokens);
+
+        return new ChatTurn(conversationId, currentUserId, character.getId(), authService.getCurrentUsername(),
+                character.getName(), systemPrompt, promptMessages, temperature, maxTokens, userMsg, startTime);
+    }
+
+    /**
+     * 结束一轮对话：保存AI回复并更新对话、角色统计，提交后用户消息进入情感分析
+     */
+    private Message completeTurn(ChatTurn turn, String aiResponse, ChatResponse.Usage usage, long processingTime) {
+        Conversation conversation = conversationRepository.findById(turn.getConversationId())
+                .orElseThrow(() -> new BusinessException("对话不存在"));
+
+        // 保存AI回复
+        Integer completionTokens = usage != null ? usage.getCompletionTokens() : null;
+        Message aiMsg = saveAiMessage(conversation, aiResponse, processingTime, completionTokens);
+
+        // 令牌消耗计入对话、用户、角色（异步批量写库）
+        if (usage != null && usage.getTotalTokens() != null) {
+            usageCounterService.recordTokens(turn.getConversationId(), turn.getUserId(), turn.getCharacterId(),
+                    usage.getTotalTokens());
+        }
+
+        // 对话消息数（用户消息与AI回复）、角色使用次数合并后批量写库
+        Message userMsg = turn.getUserMessage();
+        usageCounterService.recordMessage(turn.getConversationId(), userMsg.getCreatedAt());
+        usageCounterService.recordMessage(turn.getConversationId(), aiMsg.getCreatedAt());
+        usageCounterService.recordCharacterUsage(turn.getCharacterId());
+
+        // 提交后异步分析用户消息情感
+        emotionAnalysisQueue.submit(new EmotionAnalysisQueue.Task(
+                userMsg.getId(), turn.getConversationId(), turn.getUserId(), userMsg.getContent()));
+
+        // 历史过长时在后台压缩为摘要
+        conversationSummaryService.requestSummary(conversation.getId());
+
+        return aiMsg;
+    }
+
+    /**
+     * 撤销未得到回复的一轮对话：删除已保存的用户消息，客户端重试时不会留下连续两条用户消息
+     */
+    private void discardTurn(ChatTurn turn) {
+        Long messageId = turn.getUserMessage().getId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> messageRepository.deleteById(messageId));
+        } catch (RuntimeException e) {
+            log.warn("撤销用户消息失败: 消息ID={}, 原因: {}", messageId, e.getMessage());
+        }
+    }
+
     /**
      * 创建新对话
      */
     @Transactional
     public Conversation createConversation(Long characterId, String title) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         AiCharacter character = aiCharacterRepository.findById(characterId)
                 .orElseThrow(() -> new BusinessException("AI角色不存在"));
         
         // 验证角色所有权
-        if (!character.getUser().getId().equals(currentUser.getId())) {
+        if (!character.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权使用此AI角色");
         }
         
         Conversation conversation = new Conversation();
-        conversation.setUser(currentUser);
+        conversation.setUser(authService.getCurrentUserReference());
         conversation.setCharacter(character);
         conversation.setTitle(title != null ? title : "与" + character.getName() + "的对话");
         conversation.setStatus(Conversation.ConversationStatus.ACTIVE);
@@ -123,26 +303,27 @@ public class AiChatService {
     }
 
     /**
-     * 构建对话历史
+     * 构建对话历史（在令牌预算内尽量保留最近的消息）
+     * 只读取最近若干条消息的投影（含刚保存的当前消息），不加载整段对话
      */
-    private List<ChatMessage> buildChatHistory(Conversation conversation) {
-        List<Message> messages = messageRepository.findByConversationIdOrderByCreatedAtAsc(conversation.getId());
-        List<ChatMessage> chatHistory = new ArrayList<>();
-        
-        // 限制历史消息数量，避免超出令牌限制
-        int maxHistoryMessages = 20;
-        int startIndex = Math.max(0, messages.size() - maxHistoryMessages);
-        
-        for (int i = startIndex; i < messages.size(); i++) {
-            Message msg = messages.get(i);
-            String role = msg.getSenderType() == Message.SenderType.USER ? "user" : "assistant";
-            chatHistory.add(ChatMessage.builder()
-                    .role(role)
-                    .content(msg.getContent())
-                    .build());
+    private List<ChatMessage> buildChatHistory(Conversation conversation, Message current,
+                                               String systemPrompt, Integer maxTokens) {
+        int contextRounds = conversation.getContextLength() != null ? conversation.getContextLength() : 0;
+        List<MessageHistoryView> recentHistory = contextRounds > 0
+                ? messageRepository.findRecentHistory(conversation.getId(), PageRequest.of(0, contextRounds * 2 + 1))
+                : List.of();
+        return chatContextBuilder.build(recentHistory, current, conversation.getSummaryMessageId(),
+                systemPrompt, contextRounds, maxTokens);
+    }
+
+    /**
+     * 将较早对话的摘要附加到系统提示词
+     */
+    private String withContextSummary(String systemPrompt, String contextSummary) {
+        if (contextSummary == null || contextSummary.trim().isEmpty()) {
+            return systemPrompt;
         }
-        
-        return chatHistory;
+        return systemPrompt + "\n\n以下是你与用户此前对话的摘要，请在回复时参考：\n" + contextSummary;
     }
 
     /**
@@ -154,6 +335,7 @@ public class AiChatService {
         message.setContent(content);
         message.setSenderType(Message.SenderType.USER);
         message.setMessageType(Message.MessageType.TEXT);
+        message.setTokenCount(tokenEstimator.estimate(content));
         
         return messageRepository.save(message);
     }
@@ -161,13 +343,15 @@ public class AiChatService {
     /**
      * 保存AI消息
      */
-    private Message saveAiMessage(Conversation conversation, String content, Long processingTime) {
+    private Message saveAiMessage(Conversation conversation, String content, Long processingTime, Integer tokenCount) {
         Message message = new Message();
         message.setConversation(conversation);
         message.setContent(content);
         message.setSenderType(Message.SenderType.AI);
         message.setMessageType(Message.MessageType.TEXT);
         message.setProcessingTimeMs(processingTime);
+        // 优先使用模型返回的实际令牌数
+        message.setTokenCount(tokenCount != null ? tokenCount : tokenEstimator.estimate(content));
         
         return messageRepository.save(message);
     }
@@ -177,12 +361,12 @@ public class AiChatService {
      */
     @Transactional(readOnly = true)
     public List<Message> getConversationMessages(Long conversationId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new BusinessException("对话不存在"));
         
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权访问此对话");
         }
         
@@ -194,12 +378,12 @@ public class AiChatService {
      */
     @Transactional
     public void deleteConversation(Long conversationId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new BusinessException("对话不存在"));
         
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权删除此对话");
         }
         
@@ -208,9 +392,28 @@ public class AiChatService {
     }
 
     /**
-     * 检查AI服务状态
+     * 检查AI服务状态（依据近期调用统计，不直接调用模型）
      */
     public boolean checkAiServiceStatus() {
-        return zhipuAiClient.checkConnection();
+        return zhipuAiHealthIndicator.isAvailable();
+    }
+
+    /**
+     * 单轮对话上下文
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class ChatTurn {
+        private final Long conversationId;
+        private final Long userId;
+        private final Long characterId;
+        private final String username;
+        private final String characterName;
+        private final String systemPrompt;
+        private final List<ChatMessage> promptMessages;
+        private final Double temperature;
+        private final Integer maxTokens;
+        private final Message userMessage;
+        private final long startTime;
     }
 }
@@ -11,16 +11,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ai.love.entity.User;
 import com.ai.love.exception.BusinessException;
 import com.ai.love.repository.UserRepository;
+import com.ai.love.security.PasswordHasher;
+import com.ai.love.security.TokenRevocationStore;
 import com.ai.love.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 
@@ -33,59 +34,68 @@ import java.time.LocalDateTime;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final UsageCounterService usageCounterService;
+    private final TransactionTemplate transactionTemplate;
     private final ObjectMapper objectMapper;
 
     /**
      * 用户注册
+     * 先在密码哈希线程池中计算哈希，再开启事务做唯一性检查并保存，哈希期间不持有数据库连接
      */
-    @Transactional
     public void register(RegisterRequest request) {
-        // 检查用户名是否已存在
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new BusinessException("用户名已存在");
-        }
+        String passwordHash = passwordHasher.encode(request.getPassword());
 
-        // 检查邮箱是否已存在
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new BusinessException("邮箱已被注册");
-        }
+        User user = transactionTemplate.execute(status -> {
+            // 检查用户名是否已存在
+            if (userRepository.existsByUsername(request.getUsername())) {
+                throw new BusinessException("用户名已存在");
+            }
 
-        // 创建新用户
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
-        user.setNickname(request.getNickname());
-        user.setStatus(User.UserStatus.ACTIVE);
+            // 检查邮箱是否已存在
+            if (userRepository.existsByEmail(request.getEmail())) {
+                throw new BusinessException("邮箱已被注册");
+            }
 
-        userRepository.save(user);
+            // 创建新用户
+            User newUser = new User();
+            newUser.setUsername(request.getUsername());
+            newUser.setEmail(request.getEmail());
+            newUser.setPasswordHash(passwordHash);
+            newUser.setNickname(request.getNickname());
+            newUser.setStatus(User.UserStatus.ACTIVE);
+            return userRepository.save(newUser);
+        });
         log.info("用户注册成功: {}", user.getUsername());
     }
 
     /**
      * 用户登录
+     * 密码校验在有界的密码哈希线程池中执行（繁忙时返回429），期间不持有数据库连接；
+     * 登录次数与最后登录时间由 UsageCounterService 合并后写库
      */
-    @Transactional
     public LoginResponse login(LoginRequest request) {
-        // 认证用户
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                request.getUsername(),
-                request.getPassword()
-            )
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        // 获取用户信息
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new BusinessException("用户不存在"));
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        String passwordHash = user != null ? user.getPasswordHash() : null;
+
+        // 用户不存在时同样做一次哈希比对，避免通过响应时间探测用户名
+        if (!passwordHasher.matches(request.getPassword(), passwordHash)) {
+            throw new BadCredentialsException("用户名或密码错误");
+        }
+        if (user.getStatus() != User.UserStatus.ACTIVE) {
+            throw new BusinessException("账户不可用", 403);
+        }
 
-        // 更新登录信息 - 使用原生SQL避免触发器问题
-        userRepository.updateLoginInfo(user.getId(), LocalDateTime.now());
+        // 哈希强度配置变化后，借本次登录的明文密码在后台重新计算
+        if (passwordHasher.needsRehash(passwordHash)) {
+            Long userId = user.getId();
+            passwordHasher.rehashAsync(request.getPassword(), newHash -> transactionTemplate.executeWithoutResult(
+                    status -> userRepository.updatePasswordHash(userId, passwordHash, newHash)));
+        }
+
+        usageCounterService.recordLogin(user.getId(), LocalDateTime.now());
 
         // 生成JWT令牌
         String token = jwtUtil.generateToken(user.getUsername(), user.getId());
@@ -205,20 +215,25 @@ public class AuthService {
 
     /**
      * 修改密码
+     * 校验与哈希均在事务外执行；写库时比对旧哈希，期间密码已被修改则不覆盖
      */
-    @Transactional
     public void changePassword(String oldPassword, String newPassword) {
         User user = getCurrentUserEntity();
-        
+        String oldHash = user.getPasswordHash();
+
         // 验证旧密码
-        if (!passwordEncoder.matches(oldPassword, user.getPasswordHash())) {
+        if (!passwordHasher.matches(oldPassword, oldHash)) {
             throw new BusinessException("原密码错误");
         }
-        
+
         // 更新密码
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
-        
+        String newHash = passwordHasher.encode(newPassword);
+        Integer updated = transactionTemplate.execute(
+                status -> userRepository.updatePasswordHash(user.getId(), oldHash, newHash));
+        if (updated == null || updated == 0) {
+            throw new BusinessException("密码已被修改，请重试");
+        }
+
         log.info("用户密码修改成功: {}", user.getUsername());
     }
 
@@ -226,32 +241,71 @@ public class AuthService {
      * 刷新令牌
      */
     public String refreshToken(String token) {
+        JwtUtil.TokenClaims claims;
         try {
-            return jwtUtil.refreshToken(token);
+            claims = jwtUtil.parseToken(token);
         } catch (Exception e) {
             throw new BusinessException("令牌刷新失败");
         }
+
+        // 旧令牌随刷新吊销；并发刷新同一令牌时只有一次成功
+        if (claims.jti() != null && !tokenRevocationStore.revoke(claims.jti(), claims.userId(), claims.expiration())) {
+            throw new BusinessException("令牌已失效");
+        }
+        return jwtUtil.generateToken(claims.username(), claims.userId());
     }
 
     /**
-     * 获取当前用户实体
+     * 用户登出，吊销当前令牌
      */
-    public User getCurrentUserEntity() {
+    public void logout(String token) {
+        JwtUtil.TokenClaims claims = jwtUtil.parseToken(token);
+        if (claims.jti() == null) {
+            log.warn("令牌不含jti，无法吊销，将在过期后失效: {}", claims.username());
+            return;
+        }
+        tokenRevocationStore.revoke(claims.jti(), claims.userId(), claims.expiration());
+    }
+
+    /**
+     * 获取当前认证主体（由JWT声明构建，不查询数据库）
+     */
+    public UserDetailsServiceImpl.UserPrincipal getCurrentPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof UserDetailsServiceImpl.UserPrincipal principal)) {
             throw new BusinessException("用户未登录");
         }
+        return principal;
+    }
 
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
+    /**
+     * 获取当前用户实体（会查询数据库，仅在需要用户资料时使用）
+     */
+    public User getCurrentUserEntity() {
+        return userRepository.findById(getCurrentUserId())
                 .orElseThrow(() -> new BusinessException("用户不存在"));
     }
 
+    /**
+     * 获取当前用户的实体引用（不查询数据库，用于设置关联关系，需在事务内使用）
+     */
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
     /**
      * 获取当前用户ID
      */
     public Long getCurrentUserId() {
-        return getCurrentUserEntity().getId();
+        return getCurrentPrincipal().getId();
+    }
+
+    /**
+     * 获取当前用户名
+     */
+    public String getCurrentUsername() {
+        return getCurrentPrincipal().getUsername();
     }
 
     /**
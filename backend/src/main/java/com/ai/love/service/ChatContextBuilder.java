@@ -0,0 +1,110 @@
+package com.ai.love.service;
+
+import com.ai.love.config.ZhipuAiConfig;
+import com.ai.love.dto.ai.ChatMessage;
+import com.ai.love.entity.Message;
+import com.ai.love.repository.MessageHistoryView;
+import com.ai.love.util.TokenEstimator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 对话上下文构建器
+ * 在令牌预算内从最新到最旧填充历史消息，优先使用消息上已保存的令牌数
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatContextBuilder {
+
+    /**
+     * 回复预留令牌数下限
+     */
+    private static final int MIN_REPLY_TOKENS = 256;
+
+    private final ZhipuAiConfig zhipuAiConfig;
+    private final TokenEstimator tokenEstimator;
+
+    /**
+     * 构建发送给模型的消息列表（不含系统提示词）
+     *
+     * @param recentHistory 最近的历史消息，按时间倒序（最新在前），可包含当前用户消息
+     * @param current       当前用户消息，总是放在最后
+     * @param summarizedUntilId 已被上下文摘要覆盖的最后一条消息ID，此前的消息不再原样发送
+     * @param systemPrompt  系统提示词（含摘要），计入预算
+     * @param contextRounds 最多保留的对话轮数（一轮为一问一答）
+     * @param replyTokens   为模型回复预留的令牌数
+     */
+    public List<ChatMessage> build(List<MessageHistoryView> recentHistory, Message current, Long summarizedUntilId,
+                                   String systemPrompt, Integer contextRounds, Integer replyTokens) {
+        int currentTokens = tokensOf(current.getTokenCount(), current.getContent());
+        int budget = historyBudget(systemPrompt, currentTokens, replyTokens);
+        int maxMessages = contextRounds != null && contextRounds > 0 ? contextRounds * 2 : 0;
+
+        List<ChatMessage> selected = new ArrayList<>();
+        int used = 0;
+        for (MessageHistoryView msg : recentHistory) {
+            if (selected.size() >= maxMessages
+                    || (summarizedUntilId != null && msg.getId() <= summarizedUntilId)) {
+                break;
+            }
+            if (msg.isSystemMessage() || msg.getId().equals(current.getId())) {
+                continue;
+            }
+            int tokens = tokensOf(msg.getTokenCount(), msg.getContent());
+            if (used + tokens > budget) {
+                break;
+            }
+            used += tokens;
+            selected.add(toChatMessage(msg));
+        }
+        Collections.reverse(selected);
+
+        // 历史以用户消息开头，避免截断后出现孤立的AI回复
+        while (!selected.isEmpty() && !"user".equals(selected.get(0).getRole())) {
+            selected.remove(0);
+        }
+
+        selected.add(ChatMessage.user(current.getContent()));
+        log.debug("构建对话上下文: 历史消息={}条, 历史令牌={}, 预算={}", selected.size() - 1, used, budget);
+        return selected;
+    }
+
+    /**
+     * 计算回复令牌上限：提示词过长（如当前消息很长）时压缩回复预留，保证整体不超出上下文窗口
+     */
+    public int fitReplyTokens(String systemPrompt, List<ChatMessage> messages, Integer replyTokens) {
+        int reply = replyTokens != null ? replyTokens : zhipuAiConfig.getMaxTokens();
+        int available = zhipuAiConfig.getMaxContextTokens() - tokenEstimator.estimatePrompt(systemPrompt, messages);
+        return Math.max(Math.min(reply, MIN_REPLY_TOKENS), Math.min(reply, available));
+    }
+
+    /**
+     * 计算历史消息可用的令牌预算
+     */
+    private int historyBudget(String systemPrompt, int currentTokens, Integer replyTokens) {
+        int reply = replyTokens != null ? replyTokens : zhipuAiConfig.getMaxTokens();
+        int systemTokens = systemPrompt != null ? tokenEstimator.estimateMessage(systemPrompt) : 0;
+        return Math.max(0, zhipuAiConfig.getMaxContextTokens() - reply - systemTokens - currentTokens);
+    }
+
+    /**
+     * 获取消息令牌数（含格式开销），已保存时直接使用，避免重复计算
+     */
+    int tokensOf(Integer storedTokens, String content) {
+        return storedTokens != null
+                ? storedTokens + TokenEstimator.MESSAGE_OVERHEAD_TOKENS
+                : tokenEstimator.estimateMessage(content);
+    }
+
+    private ChatMessage toChatMessage(MessageHistoryView message) {
+        return message.isUserMessage()
+                ? ChatMessage.user(message.getContent())
+                : ChatMessage.assistant(message.getContent());
+    }
+}
@@ -6,7 +6,6 @@ import com.ai.love.dto.conversation.UpdateConversationRequest;
 import com.ai.love.dto.conversation.ConversationSettingsRequest;
 import com.ai.love.dto.conversation.ConversationSettingsResponse;
 import com.ai.love.entity.Conversation;
-import com.ai.love.entity.User;
 import com.ai.love.exception.BusinessException;
 import com.ai.love.exception.ResourceNotFoundException;
 import com.ai.love.repository.ConversationRepository;
@@ -38,9 +37,9 @@ public class ConversationService {
      */
     @Transactional(readOnly = true)
     public Page<ConversationListResponse> getUserConversations(Pageable pageable) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         Page<Conversation> conversations = conversationRepository.findByUserIdAndStatus(
-                currentUser.getId(), 
+                currentUserId, 
                 Conversation.ConversationStatus.ACTIVE, 
                 pageable
         );
@@ -53,13 +52,13 @@ public class ConversationService {
      */
     @Transactional(readOnly = true)
     public ConversationDetailResponse getConversationDetail(Long conversationId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("对话不存在"));
         
         // 验证对话所有权
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权访问此对话");
         }
         
@@ -71,13 +70,13 @@ public class ConversationService {
      */
     @Transactional
     public ConversationDetailResponse updateConversation(Long conversationId, UpdateConversationRequest request) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("对话不存在"));
         
         // 验证对话所有权
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权修改此对话");
         }
         
@@ -93,7 +92,7 @@ public class ConversationService {
         }
         
         Conversation updatedConversation = conversationRepository.save(conversation);
-        log.info("对话更新成功: 用户={}, 对话ID={}", currentUser.getUsername(), conversationId);
+        log.info("对话更新成功: 用户={}, 对话ID={}", authService.getCurrentUsername(), conversationId);
         
         return ConversationDetailResponse.fromEntity(updatedConversation);
     }
@@ -103,9 +102,9 @@ public class ConversationService {
      */
     @Transactional(readOnly = true)
     public Page<ConversationListResponse> searchConversations(String keyword, Pageable pageable) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         Page<Conversation> conversations = conversationRepository.findByUserIdAndTitleContaining(
-                currentUser.getId(), keyword, pageable);
+                currentUserId, keyword, pageable);
         
         return conversations.map(ConversationListResponse::fromEntity);
     }
@@ -115,8 +114,8 @@ public class ConversationService {
      */
     @Transactional(readOnly = true)
     public List<ConversationListResponse> getRecentConversations(int limit) {
-        User currentUser = authService.getCurrentUserEntity();
-        List<Conversation> conversations = conversationRepository.findActiveConversationsByUserId(currentUser.getId());
+        Long currentUserId = authService.getCurrentUserId();
+        List<Conversation> conversations = conversationRepository.findActiveConversationsByUserId(currentUserId);
         
         return conversations.stream()
                 .limit(limit)
@@ -129,20 +128,20 @@ public class ConversationService {
      */
     @Transactional
     public void archiveConversation(Long conversationId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("对话不存在"));
         
         // 验证对话所有权
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权归档此对话");
         }
         
         conversation.setStatus(Conversation.ConversationStatus.ARCHIVED);
         conversationRepository.save(conversation);
         
-        log.info("对话归档成功: 用户={}, 对话ID={}", currentUser.getUsername(), conversationId);
+        log.info("对话归档成功: 用户={}, 对话ID={}", authService.getCurrentUsername(), conversationId);
     }
 
     /**
@@ -150,20 +149,20 @@ public class ConversationService {
      */
     @Transactional
     public void restoreConversation(Long conversationId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("对话不存在"));
         
         // 验证对话所有权
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权恢复此对话");
         }
         
         conversation.setStatus(Conversation.ConversationStatus.ACTIVE);
         conversationRepository.save(conversation);
         
-        log.info("对话恢复成功: 用户={}, 对话ID={}", currentUser.getUsername(), conversationId);
+        log.info("对话恢复成功: 用户={}, 对话ID={}", authService.getCurrentUsername(), conversationId);
     }
 
     /**
@@ -171,13 +170,13 @@ public class ConversationService {
      */
     @Transactional(readOnly = true)
     public ConversationStatsResponse getConversationStats() {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
-        long totalCount = conversationRepository.countByUserId(currentUser.getId());
-        long activeCount = conversationRepository.countActiveByUserId(currentUser.getId());
+        long totalCount = conversationRepository.countByUserId(currentUserId);
+        long activeCount = conversationRepository.countActiveByUserId(currentUserId);
         
         // 获取各状态的对话数量
-        List<Object[]> statusCounts = conversationRepository.countByStatusAndUserId(currentUser.getId());
+        List<Object[]> statusCounts = conversationRepository.countByStatusAndUserId(currentUserId);
         
         return ConversationStatsResponse.builder()
                 .totalConversations(totalCount)
@@ -191,14 +190,14 @@ public class ConversationService {
      */
     @Transactional
     public void batchDeleteConversations(List<Long> conversationIds) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         for (Long conversationId : conversationIds) {
             Conversation conversation = conversationRepository.findById(conversationId)
                     .orElseThrow(() -> new ResourceNotFoundException("对话不存在: " + conversationId));
             
             // 验证对话所有权
-            if (!conversation.getUser().getId().equals(currentUser.getId())) {
+            if (!conversation.getUser().getId().equals(currentUserId)) {
                 throw new BusinessException("无权删除对话: " + conversationId);
             }
             
@@ -206,7 +205,7 @@ public class ConversationService {
             conversationRepository.save(conversation);
         }
         
-        log.info("批量删除对话成功: 用户={}, 数量={}", currentUser.getUsername(), conversationIds.size());
+        log.info("批量删除对话成功: 用户={}, 数量={}", authService.getCurrentUsername(), conversationIds.size());
     }
 
     /**
@@ -214,13 +213,13 @@ public class ConversationService {
      */
     @Transactional(readOnly = true)
     public ConversationSettingsResponse getConversationSettings(Long conversationId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
 
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("对话不存在"));
 
         // 验证对话所有权
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权访问此对话设置");
         }
 
@@ -232,13 +231,13 @@ public class ConversationService {
      */
     @Transactional
     public ConversationSettingsResponse updateConversationSettings(Long conversationId, ConversationSettingsRequest request) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
 
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("对话不存在"));
 
         // 验证对话所有权
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权修改此对话设置");
         }
 
@@ -279,7 +278,7 @@ public class ConversationService {
         }
 
         Conversation updatedConversation = conversationRepository.save(conversation);
-        log.info("对话设置更新成功: 用户={}, 对话ID={}", currentUser.getUsername(), conversationId);
+        log.info("对话设置更新成功: 用户={}, 对话ID={}", authService.getCurrentUsername(), conversationId);
 
         return ConversationSettingsResponse.fromEntity(updatedConversation);
     }
@@ -0,0 +1,156 @@
+package com.ai.love.service;
+
+import com.ai.love.config.ZhipuAiConfig;
+import com.ai.love.dto.ai.ChatMessage;
+import com.ai.love.dto.ai.ChatResponse;
+import com.ai.love.entity.Conversation;
+import com.ai.love.repository.ConversationRepository;
+import com.ai.love.repository.MessageHistoryView;
+import com.ai.love.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 对话摘要服务
+ * 未摘要的历史超过令牌阈值时，在后台把较早的消息合并进 Conversation.contextSummary，
+ * 使每轮提示词大小基本不随对话长度增长
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConversationSummaryService {
+
+    /**
+     * 单次摘要最多读取的消息条数
+     */
+    private static final int MAX_MESSAGES_PER_PASS = 200;
+
+    private static final double SUMMARY_TEMPERATURE = 0.3;
+
+    private static final String SUMMARY_SYSTEM_PROMPT = "你是对话摘要助手。请将已有摘要与新增对话合并为一段简洁的中文摘要，"
+            + "保留人物关系、用户的个人信息、偏好、约定和情感变化，省略寒暄，不要编造内容，只输出摘要正文。";
+
+    private final ZhipuAiClient zhipuAiClient;
+    private final ZhipuAiConfig zhipuAiConfig;
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final ChatContextBuilder chatContextBuilder;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("conversationSummaryExecutor")
+    private final ThreadPoolTaskExecutor conversationSummaryExecutor;
+
+    /**
+     * 正在摘要的对话，避免同一对话并发摘要
+     */
+    private final Set<Long> inProgress = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 请求后台检查并更新对话摘要，存在事务时在提交后执行
+     */
+    public void requestSummary(Long conversationId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(conversationId);
+                }
+            });
+        } else {
+            submit(conversationId);
+        }
+    }
+
+    private void submit(Long conversationId) {
+        if (!inProgress.add(conversationId)) {
+            return;
+        }
+        try {
+            conversationSummaryExecutor.execute(() -> {
+                try {
+                    summarizeIfNeeded(conversationId);
+                } catch (Exception e) {
+                    log.warn("对话摘要更新失败: 对话ID={}, 原因={}", conversationId, e.getMessage());
+                } finally {
+                    inProgress.remove(conversationId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inProgress.remove(conversationId);
+            log.debug("对话摘要任务被拒绝: 对话ID={}", conversationId);
+        }
+    }
+
+    /**
+     * 未摘要消息超过阈值时，将除最近若干条之外的消息合并进摘要
+     */
+    private void summarizeIfNeeded(Long conversationId) {
+        Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+        if (conversation == null) {
+            return;
+        }
+
+        Long summarizedUntil = conversation.getSummaryMessageId() != null ? conversation.getSummaryMessageId() : 0L;
+        List<MessageHistoryView> pending = messageRepository.findHistoryAfter(
+                conversationId, summarizedUntil, PageRequest.of(0, MAX_MESSAGES_PER_PASS));
+
+        int keep = zhipuAiConfig.getSummaryKeepMessages();
+        if (pending.size() <= keep) {
+            return;
+        }
+
+        int pendingTokens = 0;
+        for (MessageHistoryView msg : pending) {
+            pendingTokens += chatContextBuilder.tokensOf(msg.getTokenCount(), msg.getContent());
+        }
+        if (pendingTokens < zhipuAiConfig.getSummaryTriggerTokens()) {
+            return;
+        }
+
+        List<MessageHistoryView> toSummarize = pending.subList(0, pending.size() - keep);
+        Long newSummarizedUntil = toSummarize.get(toSummarize.size() - 1).getId();
+        String summary = summarize(conversation.getContextSummary(), toSummarize);
+
+        Integer updated = transactionTemplate.execute(status ->
+                conversationRepository.updateContextSummary(conversationId, summary, newSummarizedUntil));
+
+        log.info("对话摘要已更新: 对话ID={}, 摘要消息数={}, 摘要前令牌={}, 生效={}",
+                conversationId, toSummarize.size(), pendingTokens, updated != null && updated > 0);
+    }
+
+    /**
+     * 调用模型合并已有摘要与新增对话
+     */
+    private String summarize(String previousSummary, List<MessageHistoryView> messages) {
+        StringBuilder transcript = new StringBuilder();
+        if (previousSummary != null && !previousSummary.trim().isEmpty()) {
+            transcript.append("【已有摘要】\n").append(previousSummary).append("\n\n");
+        }
+        transcript.append("【新增对话】\n");
+        for (MessageHistoryView msg : messages) {
+            if (msg.isSystemMessage()) {
+                continue;
+            }
+            transcript.append(msg.isUserMessage() ? "用户：" : "角色：").append(msg.getContent()).append('\n');
+        }
+
+        ChatResponse response = zhipuAiClient.chat(
+                List.of(ChatMessage.user(transcript.toString())),
+                SUMMARY_TEMPERATURE,
+                zhipuAiConfig.getSummaryMaxTokens(),
+                SUMMARY_SYSTEM_PROMPT
+        );
+        return zhipuAiClient.extractContent(response).trim();
+    }
+}
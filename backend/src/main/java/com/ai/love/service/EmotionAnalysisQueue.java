@@ -0,0 +1,161 @@
+package com.ai.love.service;
+
+import com.ai.love.config.EmotionAnalysisConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 情感分析队列
+ * 新的用户消息进入有界队列，由常驻工作线程按批取出、分析并批量写库，聊天请求无需等待分析完成
+ */
+@Slf4j
+@Service
+public class EmotionAnalysisQueue {
+
+    private static final long POLL_TIMEOUT_MS = 1000;
+
+    private final EmotionAnalysisConfig emotionAnalysisConfig;
+    private final EmotionAnalyzer emotionAnalyzer;
+    private final EmotionAnalysisWriter emotionAnalysisWriter;
+    private final ThreadPoolTaskExecutor emotionAnalysisExecutor;
+    private final BlockingQueue<Task> queue;
+
+    private final Counter enqueuedCounter;
+    private final Counter droppedCounter;
+    private final Counter analyzedCounter;
+
+    private volatile boolean running = true;
+
+    public EmotionAnalysisQueue(EmotionAnalysisConfig emotionAnalysisConfig,
+                                EmotionAnalyzer emotionAnalyzer,
+                                EmotionAnalysisWriter emotionAnalysisWriter,
+                                @Qualifier("emotionAnalysisExecutor") ThreadPoolTaskExecutor emotionAnalysisExecutor,
+                                MeterRegistry meterRegistry) {
+        this.emotionAnalysisConfig = emotionAnalysisConfig;
+        this.emotionAnalyzer = emotionAnalyzer;
+        this.emotionAnalysisWriter = emotionAnalysisWriter;
+        this.emotionAnalysisExecutor = emotionAnalysisExecutor;
+        this.queue = new ArrayBlockingQueue<>(emotionAnalysisConfig.getQueueCapacity());
+
+        this.enqueuedCounter = taskCounter(meterRegistry, "enqueued");
+        this.droppedCounter = taskCounter(meterRegistry, "dropped");
+        this.analyzedCounter = taskCounter(meterRegistry, "analyzed");
+        Gauge.builder("emotion.analysis.queue.size", queue, BlockingQueue::size)
+                .description("待分析消息数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动工作线程
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (int i = 0; i < emotionAnalysisConfig.getWorkers(); i++) {
+            emotionAnalysisExecutor.execute(this::consume);
+        }
+        log.info("情感分析队列已启动: 工作线程={}, 容量={}", emotionAnalysisConfig.getWorkers(),
+                emotionAnalysisConfig.getQueueCapacity());
+    }
+
+    /**
+     * 停止接收新任务，工作线程处理完队列剩余任务后退出
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * 提交待分析消息（在事务中调用时，提交后才入队）
+     * 队列满时丢弃并计数，可稍后通过对话批量分析补齐
+     */
+    public void submit(Task task) {
+        if (!Boolean.TRUE.equals(emotionAnalysisConfig.getAutoAnalyze())) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(task);
+                }
+            });
+        } else {
+            offer(task);
+        }
+    }
+
+    private void offer(Task task) {
+        if (running && queue.offer(task)) {
+            enqueuedCounter.increment();
+        } else {
+            droppedCounter.increment();
+            log.warn("情感分析队列已满，丢弃消息: {}", task.messageId());
+        }
+    }
+
+    /**
+     * 工作线程：阻塞等待首个任务，再取出队列中已有的任务凑成一批
+     */
+    private void consume() {
+        int batchSize = emotionAnalysisConfig.getBatchSize();
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Task first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("情感分析批次处理失败: {} 条", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Task> batch) {
+        List<EmotionAnalysisWriter.AnalyzedMessage> analyzed = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            analyzed.add(new EmotionAnalysisWriter.AnalyzedMessage(task.messageId(), task.conversationId(),
+                    task.userId(), emotionAnalyzer.analyze(task.content())));
+        }
+        emotionAnalysisWriter.write(analyzed);
+        analyzedCounter.increment(batch.size());
+    }
+
+    private static Counter taskCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("emotion.analysis.tasks")
+                .description("情感分析任务数")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 待分析消息
+     */
+    public record Task(Long messageId, Long conversationId, Long userId, String content) {
+    }
+}
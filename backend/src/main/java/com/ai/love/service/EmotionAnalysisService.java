@@ -1,23 +1,31 @@
 package com.ai.love.service;
 
+import com.ai.love.dto.emotion.ConversationAnalysisResponse;
 import com.ai.love.dto.emotion.EmotionAnalysisResponse;
 import com.ai.love.dto.emotion.EmotionTrendResponse;
 import com.ai.love.dto.emotion.EmotionStatsResponse;
 import com.ai.love.entity.EmotionAnalysis;
 import com.ai.love.entity.Message;
 import com.ai.love.entity.Conversation;
-import com.ai.love.entity.User;
 import com.ai.love.exception.BusinessException;
 import com.ai.love.repository.EmotionAnalysisRepository;
+import com.ai.love.repository.MessageHistoryView;
 import com.ai.love.repository.MessageRepository;
 import com.ai.love.repository.ConversationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -28,23 +36,39 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class EmotionAnalysisService {
 
+    /**
+     * 批量分析时每次读取并写入（一个事务）的消息数
+     */
+    private static final int ANALYZE_CHUNK_SIZE = 1000;
+
+    /**
+     * 并行分析时每个任务的最少消息数，消息较少时不值得拆分
+     */
+    private static final int ANALYZE_SLICE_MIN_SIZE = 100;
+
     private final EmotionAnalysisRepository emotionAnalysisRepository;
     private final MessageRepository messageRepository;
     private final ConversationRepository conversationRepository;
     private final AuthService authService;
+    private final EmotionAnalyzer emotionAnalyzer;
+    private final EmotionAnalysisWriter emotionAnalysisWriter;
+    private final EmotionStatsRollup emotionStatsRollup;
+    private final EmotionTrendRollup emotionTrendRollup;
+    @Qualifier("emotionBatchExecutor")
+    private final ThreadPoolTaskExecutor emotionBatchExecutor;
 
     /**
      * 分析消息情感
      */
     @Transactional
     public EmotionAnalysisResponse analyzeMessage(Long messageId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new BusinessException("消息不存在"));
         
         // 验证消息所有权
-        if (!message.getConversation().getUser().getId().equals(currentUser.getId())) {
+        if (!message.getConversation().getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权分析此消息");
         }
         
@@ -54,32 +78,115 @@ public class EmotionAnalysisService {
             return EmotionAnalysisResponse.fromEntity(existingAnalysis.get());
         }
         
-        // 执行情感分析
-        EmotionAnalysis analysis = performEmotionAnalysis(message);
-        EmotionAnalysis savedAnalysis = emotionAnalysisRepository.save(analysis);
-        
-        // 更新消息的情感分数
-        message.setEmotionScore(analysis.getValence());
-        messageRepository.save(message);
+        // 执行情感分析，与异步分析共用同一写入路径（同时回写消息的情感分数）
+        EmotionAnalyzer.Result result = emotionAnalyzer.analyze(message.getContent());
+        emotionAnalysisWriter.write(List.of(new EmotionAnalysisWriter.AnalyzedMessage(
+                messageId, message.getConversation().getId(), currentUserId, result)));
+        EmotionAnalysis savedAnalysis = emotionAnalysisRepository.findByMessageId(messageId)
+                .orElseThrow(() -> new BusinessException("情感分析保存失败"));
         
         log.info("情感分析完成: 消息ID={}, 情感类型={}, 置信度={}", 
-                messageId, analysis.getEmotionType(), analysis.getConfidence());
+                messageId, result.emotionType(), result.confidence());
         
         return EmotionAnalysisResponse.fromEntity(savedAnalysis);
     }
 
+    /**
+     * 批量分析对话中尚未分析的用户消息
+     * 按ID分块读取待分析消息，每块在批量分析线程池中并行分析后批量写入（每块一个事务），内存占用与对话长度无关
+     */
+    public ConversationAnalysisResponse analyzeConversation(Long conversationId) {
+        Long currentUserId = authService.getCurrentUserId();
+        long startTime = System.currentTimeMillis();
+
+        Long ownerId = conversationRepository.findUserIdById(conversationId)
+                .orElseThrow(() -> new BusinessException("对话不存在"));
+        if (!ownerId.equals(currentUserId)) {
+            throw new BusinessException("无权分析此对话");
+        }
+
+        int pendingCount = 0;
+        int analyzedCount = 0;
+        long afterId = 0L;
+        List<MessageHistoryView> chunk;
+        do {
+            chunk = messageRepository.findUnanalyzedMessages(conversationId, Message.SenderType.USER, afterId,
+                    PageRequest.of(0, ANALYZE_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<EmotionAnalysisWriter.AnalyzedMessage> analyzed = analyzeChunk(chunk, conversationId, ownerId);
+            analyzedCount += emotionAnalysisWriter.write(analyzed).size();
+            pendingCount += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getId();
+        } while (chunk.size() == ANALYZE_CHUNK_SIZE);
+
+        long processingTime = System.currentTimeMillis() - startTime;
+        log.info("对话情感批量分析完成: 对话ID={}, 待分析={}, 新增={}, 耗时={}ms",
+                conversationId, pendingCount, analyzedCount, processingTime);
+
+        return ConversationAnalysisResponse.builder()
+                .conversationId(conversationId)
+                .pendingCount(pendingCount)
+                .analyzedCount(analyzedCount)
+                .processingTimeMs(processingTime)
+                .build();
+    }
+
+    /**
+     * 把一块消息分给批量分析线程池并行分析，结果按原顺序合并；线程池已满时由当前线程分析被拒绝的部分
+     */
+    private List<EmotionAnalysisWriter.AnalyzedMessage> analyzeChunk(List<MessageHistoryView> chunk,
+                                                                      Long conversationId, Long userId) {
+        int parallelism = emotionBatchExecutor.getMaxPoolSize();
+        int sliceSize = Math.max(ANALYZE_SLICE_MIN_SIZE, (chunk.size() + parallelism - 1) / parallelism);
+
+        List<CompletableFuture<List<EmotionAnalysisWriter.AnalyzedMessage>>> slices = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<MessageHistoryView> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+            Supplier<List<EmotionAnalysisWriter.AnalyzedMessage>> task =
+                    () -> analyzeSlice(slice, conversationId, userId);
+            try {
+                slices.add(CompletableFuture.supplyAsync(task, emotionBatchExecutor));
+            } catch (TaskRejectedException e) {
+                slices.add(CompletableFuture.completedFuture(task.get()));
+            }
+        }
+
+        List<EmotionAnalysisWriter.AnalyzedMessage> analyzed = new ArrayList<>(chunk.size());
+        try {
+            slices.forEach(slice -> analyzed.addAll(slice.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return analyzed;
+    }
+
+    private List<EmotionAnalysisWriter.AnalyzedMessage> analyzeSlice(List<MessageHistoryView> slice,
+                                                                      Long conversationId, Long userId) {
+        List<EmotionAnalysisWriter.AnalyzedMessage> analyzed = new ArrayList<>(slice.size());
+        for (MessageHistoryView view : slice) {
+            analyzed.add(new EmotionAnalysisWriter.AnalyzedMessage(view.getId(), conversationId, userId,
+                    emotionAnalyzer.analyze(view.getContent())));
+        }
+        return analyzed;
+    }
+
     /**
      * 获取对话的情感分析
      */
     @Transactional(readOnly = true)
     public List<EmotionAnalysisResponse> getConversationEmotions(Long conversationId) {
-        User currentUser = authService.getCurrentUserEntity();
+        Long currentUserId = authService.getCurrentUserId();
         
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new BusinessException("对话不存在"));
         
         // 验证对话所有权
-        if (!conversation.getUser().getId().equals(currentUser.getId())) {
+        if (!conversation.getUser().getId().equals(currentUserId)) {
             throw new BusinessException("无权访问此对话的情感分析");
         }
         
@@ -95,18 +202,11 @@ public class EmotionAnalysisService {
      */
     @Transactional(readOnly = true)
     public List<EmotionTrendResponse> getEmotionTrend(int days) {
-        User currentUser = authService.getCurrentUserEntity();
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        
-        List<Object[]> trendData = emotionAnalysisRepository.getEmotionTrendByUserId(currentUser.getId(), startDate);
-        
-        return trendData.stream()
-                .map(data -> EmotionTrendResponse.builder()
-                        .date((java.sql.Date) data[0])
-                        .averageValence((Double) data[1])
-                        .averageIntensity((Double) data[2])
-                        .build())
-                .collect(Collectors.toList());
+        Long currentUserId = authService.getCurrentUserId();
+        LocalDate startDate = LocalDate.now().minusDays(days);
+
+        // 读取每日汇总，区间内每天最多一行
+        return emotionTrendRollup.findTrend(currentUserId, startDate);
     }
 
     /**
@@ -114,31 +214,30 @@ public class EmotionAnalysisService {
      */
     @Transactional(readOnly = true)
     public EmotionStatsResponse getEmotionStats() {
-        User currentUser = authService.getCurrentUserEntity();
-        Long userId = currentUser.getId();
+        Long userId = authService.getCurrentUserId();
 
-        // 获取情感分布
-        List<Object[]> emotionCounts = emotionAnalysisRepository.getMostCommonEmotionsByUserId(userId);
-        Map<String, Long> emotionDistribution = emotionCounts.stream()
-                .collect(Collectors.toMap(
-                        data -> ((EmotionAnalysis.EmotionType) data[0]).getDescription(),
-                        data -> (Long) data[1]
-                ));
+        // 读取增量维护的统计汇总（单行）
+        EmotionStatsRollup.Stats stats = emotionStatsRollup.find(userId)
+                .orElseGet(() -> new EmotionStatsRollup.Stats(0, 0, 0, Map.of(), List.of()));
+        Map<String, Long> emotionDistribution = new LinkedHashMap<>();
+        stats.counts().entrySet().stream()
+                .sorted(Map.Entry.<EmotionAnalysis.EmotionType, Long>comparingByValue().reversed())
+                .forEach(entry -> emotionDistribution.put(entry.getKey().getDescription(), entry.getValue()));
 
-        // 获取情感比例
-        long totalAnalyses = emotionAnalysisRepository.countByUserId(userId);
-        long positiveCount = emotionAnalysisRepository.countPositiveEmotions(userId);
-        long negativeCount = emotionAnalysisRepository.countNegativeEmotions(userId);
-        long neutralCount = totalAnalyses - positiveCount - negativeCount;
-
-        double positiveRatio = totalAnalyses > 0 ? (double) positiveCount / totalAnalyses : 0;
-        double negativeRatio = totalAnalyses > 0 ? (double) negativeCount / totalAnalyses : 0;
-        double neutralRatio = totalAnalyses > 0 ? (double) neutralCount / totalAnalyses : 0;
+        long totalAnalyses = stats.total();
+        double positiveRatio = totalAnalyses > 0 ? (double) stats.positive() / totalAnalyses : 0;
+        double negativeRatio = totalAnalyses > 0 ? (double) stats.negative() / totalAnalyses : 0;
+        double neutralRatio = totalAnalyses > 0 ? (double) stats.neutral() / totalAnalyses : 0;
         
-        // 获取关键词
-        List<String> allKeywords = emotionAnalysisRepository.findAllKeywordsByUserId(userId);
-        List<Map<String, Object>> keywordCloudData = processKeywordsForCloud(allKeywords);
-
+        // 关键词云取自增量维护的高频项表
+        List<Map<String, Object>> keywordCloudData = stats.keywords().stream()
+                .map(entry -> {
+                    Map<String, Object> map = new HashMap<>();
+                    map.put("name", entry.item());
+                    map.put("value", entry.count());
+                    return map;
+                })
+                .collect(Collectors.toList());
 
         return EmotionStatsResponse.builder()
                 .totalAnalyses(totalAnalyses)
@@ -151,125 +250,8 @@ public class EmotionAnalysisService {
                 .build();
     }
 
-    private List<Map<String, Object>> processKeywordsForCloud(List<String> allKeywords) {
-        if (allKeywords == null || allKeywords.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        return allKeywords.stream()
-                .flatMap(ks -> Arrays.stream(ks.split(",")))
-                .map(String::trim)
-                .filter(k -> !k.isEmpty())
-                .collect(Collectors.groupingBy(k -> k, Collectors.counting()))
-                .entrySet().stream()
-                .map(entry -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("name", entry.getKey());
-                    map.put("value", entry.getValue());
-                    return map;
-                })
-                .sorted((a, b) -> Long.compare((long) b.get("value"), (long) a.get("value")))
-                .limit(50) // 限制最多50个关键词
-                .collect(Collectors.toList());
-    }
-
     private double calculateHealthScore(double positiveRatio, double negativeRatio) {
         // 一个简单的健康度评分模型
         return (positiveRatio - negativeRatio * 1.5 + 1) / 2 * 100;
     }
-
-    /**
-     * 执行情感分析（简化版本）
-     */
-    private EmotionAnalysis performEmotionAnalysis(Message message) {
-        String content = message.getContent().toLowerCase();
-        
-        // 简化的情感分析逻辑（实际项目中应该使用更复杂的NLP模型）
-        EmotionAnalysis.EmotionType emotionType = detectEmotionType(content);
-        double confidence = calculateConfidence(content, emotionType);
-        double intensity = calculateIntensity(content);
-        
-        EmotionAnalysis analysis = new EmotionAnalysis();
-        analysis.setMessage(message);
-        analysis.setConversation(message.getConversation());
-        analysis.setEmotionType(emotionType);
-        analysis.setConfidence(confidence);
-        analysis.setIntensity(intensity);
-        analysis.setValence(emotionType.getDefaultValence());
-        analysis.setArousal(emotionType.getDefaultArousal());
-        analysis.setKeywords(extractKeywords(content));
-        
-        return analysis;
-    }
-
-    /**
-     * 检测情感类型
-     */
-    private EmotionAnalysis.EmotionType detectEmotionType(String content) {
-        // 简化的关键词匹配
-        Map<EmotionAnalysis.EmotionType, String[]> emotionKeywords = Map.of(
-                EmotionAnalysis.EmotionType.JOY, new String[]{"开心", "高兴", "快乐", "喜悦", "哈哈", "😊", "😄"},
-                EmotionAnalysis.EmotionType.SADNESS, new String[]{"难过", "伤心", "悲伤", "哭", "😢", "😭"},
-                EmotionAnalysis.EmotionType.ANGER, new String[]{"生气", "愤怒", "气愤", "讨厌", "😡", "😠"},
-                EmotionAnalysis.EmotionType.FEAR, new String[]{"害怕", "恐惧", "担心", "紧张", "😨", "😰"},
-                EmotionAnalysis.EmotionType.SURPRISE, new String[]{"惊讶", "意外", "震惊", "😲", "😮"},
-                EmotionAnalysis.EmotionType.LOVE, new String[]{"爱", "喜欢", "爱你", "亲爱的", "❤️", "💕"},
-                EmotionAnalysis.EmotionType.EXCITEMENT, new String[]{"兴奋", "激动", "太棒了", "amazing", "😍"},
-                EmotionAnalysis.EmotionType.CALM, new String[]{"平静", "安静", "放松", "冷静", "😌"}
-        );
-        
-        for (Map.Entry<EmotionAnalysis.EmotionType, String[]> entry : emotionKeywords.entrySet()) {
-            for (String keyword : entry.getValue()) {
-                if (content.contains(keyword)) {
-                    return entry.getKey();
-                }
-            }
-        }
-        
-        return EmotionAnalysis.EmotionType.NEUTRAL;
-    }
-
-    /**
-     * 计算置信度
-     */
-    private double calculateConfidence(String content, EmotionAnalysis.EmotionType emotionType) {
-        if (emotionType == EmotionAnalysis.EmotionType.NEUTRAL) {
-            return 0.5;
-        }
-        
-        // 基于内容长度和关键词密度计算置信度
-        double baseConfidence = 0.7;
-        double lengthFactor = Math.min(content.length() / 100.0, 1.0);
-        
-        return Math.min(baseConfidence + lengthFactor * 0.2, 0.95);
-    }
-
-    /**
-     * 计算情感强度
-     */
-    private double calculateIntensity(String content) {
-        // 基于感叹号、大写字母等计算强度
-        long exclamationCount = content.chars().filter(ch -> ch == '!').count();
-        long upperCaseCount = content.chars().filter(Character::isUpperCase).count();
-        
-        double intensity = 0.5;
-        intensity += Math.min(exclamationCount * 0.1, 0.3);
-        intensity += Math.min(upperCaseCount * 0.01, 0.2);
-        
-        return Math.min(intensity, 1.0);
-    }
-
-    /**
-     * 提取关键词
-     */
-    private String extractKeywords(String content) {
-        // 简化的关键词提取
-        String[] words = content.split("\\s+");
-        List<String> keywords = Arrays.stream(words)
-                .filter(word -> word.length() > 2)
-                .limit(5)
-                .collect(Collectors.toList());
-        
-        return String.join(",", keywords);
-    }
 }
@@ -0,0 +1,126 @@
+package com.ai.love.service;
+
+import com.ai.love.entity.EmotionAnalysis;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 情感分析结果批量写入
+ * 一个事务内以 JDBC 批量插入 emotion_analysis、回写 messages.emotion_score 并累加用户情感统计和每日趋势，已分析过的消息跳过
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmotionAnalysisWriter {
+
+    private static final String LOCK_MESSAGES =
+            "SELECT id FROM messages WHERE id IN (:messageIds) FOR UPDATE";
+    private static final String SELECT_ANALYZED =
+            "SELECT message_id FROM emotion_analysis WHERE message_id IN (:messageIds)";
+    private static final String INSERT_ANALYSIS =
+            "INSERT INTO emotion_analysis (message_id, conversation_id, emotion_type, confidence, intensity, " +
+            "valence, arousal, keywords, analysis_data, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+    private static final String UPDATE_MESSAGE_SCORE =
+            "UPDATE messages SET emotion_score = ? WHERE id = ?";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EmotionStatsRollup emotionStatsRollup;
+    private final EmotionTrendRollup emotionTrendRollup;
+
+    /**
+     * 批量写入分析结果，返回本次实际新增的结果
+     */
+    public List<AnalyzedMessage> write(List<AnalyzedMessage> analyzed) {
+        if (analyzed.isEmpty()) {
+            return List.of();
+        }
+        List<AnalyzedMessage> written = transactionTemplate.execute(status -> {
+            List<AnalyzedMessage> pending = excludeAnalyzed(analyzed);
+            if (pending.isEmpty()) {
+                return pending;
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> insertArgs = new ArrayList<>(pending.size());
+            List<Object[]> scoreArgs = new ArrayList<>(pending.size());
+            for (AnalyzedMessage item : pending) {
+                EmotionAnalyzer.Result result = item.result();
+                insertArgs.add(new Object[]{item.messageId(), item.conversationId(), result.emotionType().name(),
+                        result.confidence(), result.intensity(), result.valence(), result.arousal(),
+                        result.keywords(), toJson(result.distribution()), now, now});
+                scoreArgs.add(new Object[]{result.valence(), item.messageId()});
+            }
+
+            namedParameterJdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_ANALYSIS, insertArgs);
+            namedParameterJdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_MESSAGE_SCORE, scoreArgs);
+            emotionStatsRollup.increment(pending);
+            emotionTrendRollup.increment(pending, now.toLocalDateTime().toLocalDate());
+            return pending;
+        });
+
+        log.debug("情感分析结果写入完成: 提交={}, 新增={}", analyzed.size(), written.size());
+        return written;
+    }
+
+    /**
+     * 情感得分分布序列化为 analysis_data
+     */
+    private String toJson(Map<EmotionAnalysis.EmotionType, Double> distribution) {
+        if (distribution == null || distribution.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(Map.of("distribution", distribution));
+        } catch (JsonProcessingException e) {
+            log.warn("情感得分分布序列化失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 过滤掉已有分析结果的消息（含同一批次内的重复消息）
+     * 先锁住消息行，并发写入同一消息的批次依次执行，保证统计只累加一次
+     */
+    private List<AnalyzedMessage> excludeAnalyzed(List<AnalyzedMessage> analyzed) {
+        Set<Long> messageIds = new HashSet<>();
+        analyzed.forEach(item -> messageIds.add(item.messageId()));
+
+        namedParameterJdbcTemplate.queryForList(LOCK_MESSAGES,
+                new MapSqlParameterSource("messageIds", messageIds), Long.class);
+
+        Set<Long> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(SELECT_ANALYZED,
+                new MapSqlParameterSource("messageIds", messageIds), Long.class));
+
+        List<AnalyzedMessage> pending = new ArrayList<>(analyzed.size());
+        for (AnalyzedMessage item : analyzed) {
+            if (existing.add(item.messageId())) {
+                pending.add(item);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * 待写入的消息分析结果
+     */
+    public record AnalyzedMessage(Long messageId, Long conversationId, Long userId, EmotionAnalyzer.Result result) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.ai.love.service;
+
+import com.ai.love.config.EmotionAnalysisConfig;
+import com.ai.love.entity.EmotionAnalysis;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 情感分析器
+ * 情感词典从 app.emotion.lexicon-path 加载并编译为 Aho–Corasick 自动机，每条消息只扫描一次。
+ * 词典文件变更后在后台重建并原子替换，分析线程始终读取完整的某一版本，无需暂停
+ */
+@Slf4j
+@Component
+public class EmotionAnalyzer {
+
+    private static final EmotionAnalysis.EmotionType[] EMOTION_TYPES = EmotionAnalysis.EmotionType.values();
+
+    private final EmotionAnalysisConfig emotionAnalysisConfig;
+    private final KeywordExtractor keywordExtractor;
+    private final Resource lexiconResource;
+    private final AtomicReference<EmotionLexicon> lexicon = new AtomicReference<>();
+
+    private long lexiconLastModified;
+    private long lexiconLength;
+
+    public EmotionAnalyzer(EmotionAnalysisConfig emotionAnalysisConfig, KeywordExtractor keywordExtractor,
+                           ResourceLoader resourceLoader) {
+        this.emotionAnalysisConfig = emotionAnalysisConfig;
+        this.keywordExtractor = keywordExtractor;
+        this.lexiconResource = resourceLoader.getResource(emotionAnalysisConfig.getLexiconPath());
+        try {
+            loadLexicon();
+        } catch (IOException e) {
+            throw new IllegalStateException("情感词典加载失败: " + lexiconResource.getDescription(), e);
+        }
+    }
+
+    /**
+     * 定时检查词典文件，变更后重新加载；加载失败时保留当前词典
+     * 仅对文件系统中的词典生效，类路径内置词典不会变化
+     */
+    @Scheduled(fixedDelayString = "${app.emotion.lexicon-reload-interval:30000}")
+    public synchronized void reloadIfChanged() {
+        if (!lexiconResource.isFile()) {
+            return;
+        }
+        try {
+            if (lexiconResource.lastModified() == lexiconLastModified
+                    && lexiconResource.contentLength() == lexiconLength) {
+                return;
+            }
+            loadLexicon();
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("情感词典重新加载失败，继续使用当前版本: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void loadLexicon() throws IOException {
+        long startTime = System.currentTimeMillis();
+        long lastModified = lexiconResource.isFile() ? lexiconResource.lastModified() : 0L;
+        long length = lexiconResource.isFile() ? lexiconResource.contentLength() : 0L;
+
+        EmotionLexicon loaded = EmotionLexicon.load(lexiconResource,
+                Boolean.TRUE.equals(emotionAnalysisConfig.getLexiconMemoryMapped()));
+        lexicon.set(loaded);
+        lexiconLastModified = lastModified;
+        lexiconLength = length;
+        log.info("情感词典已加载: {}, 词条={}, 耗时={}ms", lexiconResource.getDescription(), loaded.size(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 执行情感分析
+     * 一次扫描统计各情感类型的命中权重，得分最高者为主情感，效价与唤醒度按得分分布加权
+     */
+    public Result analyze(String rawContent) {
+        String original = rawContent != null ? rawContent : "";
+        String content = original.toLowerCase(Locale.ROOT);
+
+        double[] scores = lexicon.get().score(content, emotionAnalysisConfig.getNegationWindow());
+
+        double total = 0;
+        int top = -1;
+        for (int i = 0; i < scores.length; i++) {
+            total += scores[i];
+            // 得分相同时取枚举顺序靠前者，保证结果确定
+            if (scores[i] > 0 && (top < 0 || scores[i] > scores[top])) {
+                top = i;
+            }
+        }
+
+        if (top < 0) {
+            EmotionAnalysis.EmotionType neutral = EmotionAnalysis.EmotionType.NEUTRAL;
+            return new Result(neutral, 0.5, calculateIntensity(original), neutral.getDefaultValence(),
+                    neutral.getDefaultArousal(), keywordExtractor.extract(content), Map.of());
+        }
+
+        Map<EmotionAnalysis.EmotionType, Double> distribution = new EnumMap<>(EmotionAnalysis.EmotionType.class);
+        double valence = 0;
+        double arousal = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0) {
+                double share = scores[i] / total;
+                distribution.put(EMOTION_TYPES[i], share);
+                valence += share * EMOTION_TYPES[i].getDefaultValence();
+                arousal += share * EMOTION_TYPES[i].getDefaultArousal();
+            }
+        }
+
+        EmotionAnalysis.EmotionType emotionType = EMOTION_TYPES[top];
+        double confidence = calculateConfidence(content, scores[top] / total);
+        return new Result(emotionType, confidence, calculateIntensity(original), valence, arousal,
+                keywordExtractor.extract(content), distribution);
+    }
+
+    /**
+     * 计算置信度：主情感占比越高、文本越长，置信度越高
+     */
+    private double calculateConfidence(String content, double dominance) {
+        double lengthFactor = Math.min(content.length() / 100.0, 1.0);
+        return Math.min(0.6 + dominance * 0.25 + lengthFactor * 0.1, 0.95);
+    }
+
+    /**
+     * 计算情感强度
+     */
+    private double calculateIntensity(String content) {
+        // 基于感叹号、大写字母等计算强度
+        long exclamationCount = content.chars().filter(ch -> ch == '!').count();
+        long upperCaseCount = content.chars().filter(Character::isUpperCase).count();
+
+        double intensity = 0.5;
+        intensity += Math.min(exclamationCount * 0.1, 0.3);
+        intensity += Math.min(upperCaseCount * 0.01, 0.2);
+
+        return Math.min(intensity, 1.0);
+    }
+
+    /**
+     * 情感分析结果
+     */
+    public record Result(EmotionAnalysis.EmotionType emotionType, double confidence, double intensity,
+                         double valence, double arousal, String keywords,
+                         Map<EmotionAnalysis.EmotionType, Double> distribution) {
+    }
+}
@@ -0,0 +1,236 @@
+package com.ai.love.service;
+
+import com.ai.love.entity.EmotionAnalysis;
+import com.ai.love.util.AhoCorasickMatcher;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 情感词典
+ * 文件格式为 UTF-8 文本，每行一个词条，字段以制表符分隔：
+ * <pre>
+ * # 词条    情感类型    权重(可选，默认1)    标记(可选，逗号分隔)
+ * 开心      JOY         1.0
+ * 不        -           1.0                  negator
+ * </pre>
+ * 标记 negator 表示否定词（情感类型写 -），紧随其后的情感词不计分；fixed 表示该词不受否定影响。
+ * 词条编译为 Aho–Corasick 自动机，属性按词条下标存于基本类型数组；构建后不可变，可被分析线程共享
+ */
+public final class EmotionLexicon {
+
+    private static final byte FLAG_NEGATOR = 1;
+    private static final byte FLAG_FIXED = 2;
+    private static final byte NO_TYPE = -1;
+
+    private static final EmotionAnalysis.EmotionType[] EMOTION_TYPES = EmotionAnalysis.EmotionType.values();
+
+    private final AhoCorasickMatcher matcher;
+    private final byte[] types;
+    private final float[] weights;
+    private final byte[] flags;
+    private final int[] lengths;
+
+    private EmotionLexicon(AhoCorasickMatcher matcher, byte[] types, float[] weights, byte[] flags, int[] lengths) {
+        this.matcher = matcher;
+        this.types = types;
+        this.weights = weights;
+        this.flags = flags;
+        this.lengths = lengths;
+    }
+
+    /**
+     * 从资源加载词典；本地文件可内存映射读取，直接在映射区上逐行解析，避免大词典先整体复制到堆上
+     */
+    public static EmotionLexicon load(Resource resource, boolean memoryMapped) throws IOException {
+        if (memoryMapped && resource.isFile()) {
+            Path path = resource.getFile().toPath();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), resource.getDescription());
+            }
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return parse(ByteBuffer.wrap(in.readAllBytes()), resource.getDescription());
+        }
+    }
+
+    /**
+     * 解析 UTF-8 词典内容，同一词条出现多次时以最后一行为准
+     * 按字节查找换行（0x0A 不会出现在多字节字符中）后只解码当前行
+     */
+    public static EmotionLexicon parse(ByteBuffer content, String source) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        Map<String, Integer> index = new HashMap<>();
+        List<String> terms = new ArrayList<>();
+        List<Byte> typeList = new ArrayList<>();
+        List<Float> weightList = new ArrayList<>();
+        List<Byte> flagList = new ArrayList<>();
+
+        int limit = content.limit();
+        int lineStart = content.position();
+        int lineNumber = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && content.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            lineNumber++;
+            String line = decodeLine(decoder, content.slice(lineStart, lineEnd - lineStart), source, lineNumber).strip();
+            lineStart = lineEnd + 1;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split("\t");
+            String term = fields[0].strip().toLowerCase(Locale.ROOT);
+            if (term.isEmpty()) {
+                throw invalid(source, lineNumber, "词条为空");
+            }
+            byte flag = fields.length > 3 ? parseFlags(fields[3], source, lineNumber) : 0;
+            byte type = parseType(fields.length > 1 ? fields[1].strip() : "", flag, source, lineNumber);
+            float weight = fields.length > 2 && !fields[2].isBlank() ? parseWeight(fields[2], source, lineNumber) : 1f;
+
+            Integer existing = index.putIfAbsent(term, terms.size());
+            if (existing == null) {
+                terms.add(term);
+                typeList.add(type);
+                weightList.add(weight);
+                flagList.add(flag);
+            } else {
+                typeList.set(existing, type);
+                weightList.set(existing, weight);
+                flagList.set(existing, flag);
+            }
+        }
+
+        AhoCorasickMatcher.Builder builder = AhoCorasickMatcher.builder();
+        int size = terms.size();
+        byte[] types = new byte[size];
+        float[] weights = new float[size];
+        byte[] flags = new byte[size];
+        int[] lengths = new int[size];
+        for (int i = 0; i < size; i++) {
+            String term = terms.get(i);
+            builder.add(term, i);
+            types[i] = typeList.get(i);
+            weights[i] = weightList.get(i);
+            flags[i] = flagList.get(i);
+            lengths[i] = term.replace("\uFE0E", "").replace("\uFE0F", "").length();
+        }
+        return new EmotionLexicon(builder.build(), types, weights, flags, lengths);
+    }
+
+    /**
+     * 一次扫描计算各情感类型得分（按枚举序号索引）
+     *
+     * @param content        已转小写的文本
+     * @param negationWindow 否定词与情感词之间允许间隔的字符数
+     */
+    public double[] score(String content, int negationWindow) {
+        Scorer scorer = new Scorer(negationWindow);
+        matcher.match(content, scorer);
+        return scorer.scores;
+    }
+
+    /**
+     * 词条数
+     */
+    public int size() {
+        return types.length;
+    }
+
+    private final class Scorer implements AhoCorasickMatcher.MatchHandler {
+
+        private final double[] scores = new double[EMOTION_TYPES.length];
+        private final int negationWindow;
+        private int lastNegatorEnd = -1;
+
+        private Scorer(int negationWindow) {
+            this.negationWindow = negationWindow;
+        }
+
+        @Override
+        public void onMatch(int term, int end) {
+            if ((flags[term] & FLAG_NEGATOR) != 0) {
+                lastNegatorEnd = end;
+                return;
+            }
+            if (types[term] == NO_TYPE) {
+                return;
+            }
+            int start = end - lengths[term];
+            boolean negated = lastNegatorEnd >= 0 && lastNegatorEnd <= start
+                    && start - lastNegatorEnd <= negationWindow;
+            if (!negated || (flags[term] & FLAG_FIXED) != 0) {
+                scores[types[term]] += weights[term];
+            }
+        }
+    }
+
+    private static String decodeLine(CharsetDecoder decoder, ByteBuffer bytes, String source, int lineNumber) {
+        try {
+            return decoder.decode(bytes).toString();
+        } catch (CharacterCodingException e) {
+            throw invalid(source, lineNumber, "不是有效的UTF-8文本");
+        }
+    }
+
+    private static byte parseType(String value, byte flag, String source, int lineNumber) {
+        if (value.isEmpty() || "-".equals(value)) {
+            if ((flag & FLAG_NEGATOR) == 0) {
+                throw invalid(source, lineNumber, "缺少情感类型");
+            }
+            return NO_TYPE;
+        }
+        try {
+            return (byte) EmotionAnalysis.EmotionType.valueOf(value.toUpperCase(Locale.ROOT)).ordinal();
+        } catch (IllegalArgumentException e) {
+            throw invalid(source, lineNumber, "未知情感类型 " + value);
+        }
+    }
+
+    private static float parseWeight(String value, String source, int lineNumber) {
+        try {
+            float weight = Float.parseFloat(value.strip());
+            if (!(weight > 0) || Float.isInfinite(weight)) {
+                throw invalid(source, lineNumber, "权重必须为正数");
+            }
+            return weight;
+        } catch (NumberFormatException e) {
+            throw invalid(source, lineNumber, "权重格式错误 " + value);
+        }
+    }
+
+    private static byte parseFlags(String value, String source, int lineNumber) {
+        byte flag = 0;
+        for (String name : value.split(",")) {
+            switch (name.strip().toLowerCase(Locale.ROOT)) {
+                case "" -> { }
+                case "negator" -> flag |= FLAG_NEGATOR;
+                case "fixed" -> flag |= FLAG_FIXED;
+                default -> throw invalid(source, lineNumber, "未知标记 " + name.strip());
+            }
+        }
+        return flag;
+    }
+
+    private static IllegalArgumentException invalid(String source, int lineNumber, String reason) {
+        return new IllegalArgumentException(String.format("情感词典格式错误 %s 第%d行: %s", source, lineNumber, reason));
+    }
+}
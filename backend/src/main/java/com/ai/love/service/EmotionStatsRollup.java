@@ -0,0 +1,285 @@
+package com.ai.love.service;
+
+import com.ai.love.config.EmotionAnalysisConfig;
+import com.ai.love.entity.EmotionAnalysis;
+import com.ai.love.util.SpaceSavingSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 用户情感统计汇总（user_emotion_stats）
+ * 情感分析结果写入时在同一事务内按用户累加计数并更新关键词高频项（Space-Saving），统计接口只需读取一行。
+ * 回填前的历史用户没有高频项表，由后台任务分批从历史分析结果重建，重建完成前统计接口不返回关键词云
+ */
+@Slf4j
+@Component
+public class EmotionStatsRollup {
+
+    /**
+     * 正面/负面情感的效价阈值，与历史统计口径一致
+     */
+    private static final double POSITIVE_VALENCE = 0.1;
+    private static final double NEGATIVE_VALENCE = -0.1;
+
+    private static final EmotionAnalysis.EmotionType[] EMOTION_TYPES = EmotionAnalysis.EmotionType.values();
+    private static final String TYPE_COLUMNS = Arrays.stream(EMOTION_TYPES)
+            .map(EmotionStatsRollup::columnOf)
+            .collect(Collectors.joining(", "));
+
+    private static final String UPSERT_STATS =
+            "INSERT INTO user_emotion_stats (user_id, total_count, positive_count, negative_count, " + TYPE_COLUMNS + ") " +
+            "VALUES (?, ?, ?, ?" + ", ?".repeat(EMOTION_TYPES.length) + ") " +
+            "ON DUPLICATE KEY UPDATE total_count = total_count + VALUES(total_count), " +
+            "positive_count = positive_count + VALUES(positive_count), " +
+            "negative_count = negative_count + VALUES(negative_count), " +
+            Arrays.stream(EMOTION_TYPES)
+                    .map(type -> columnOf(type) + " = " + columnOf(type) + " + VALUES(" + columnOf(type) + ")")
+                    .collect(Collectors.joining(", "));
+    private static final String SELECT_STATS =
+            "SELECT total_count, positive_count, negative_count, keyword_sketch, " + TYPE_COLUMNS +
+            " FROM user_emotion_stats WHERE user_id = ?";
+    private static final String LOCK_SKETCHES =
+            "SELECT user_id, total_count, keyword_sketch FROM user_emotion_stats WHERE user_id IN (:userIds) FOR UPDATE";
+    private static final String LOCK_SKETCH =
+            "SELECT keyword_sketch FROM user_emotion_stats WHERE user_id = ? FOR UPDATE";
+    private static final String UPDATE_SKETCH =
+            "UPDATE user_emotion_stats SET keyword_sketch = ? WHERE user_id = ?";
+    private static final String SELECT_MISSING_SKETCHES =
+            "SELECT user_id FROM user_emotion_stats WHERE keyword_sketch IS NULL AND total_count > 0 LIMIT ?";
+    private static final String SELECT_USER_KEYWORDS =
+            "SELECT e.keywords FROM emotion_analysis e JOIN conversations c ON c.id = e.conversation_id " +
+            "WHERE c.user_id = ? AND e.keywords IS NOT NULL AND e.keywords <> ''";
+
+    private final EmotionAnalysisConfig emotionAnalysisConfig;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate rebuildTransactionTemplate;
+
+    /**
+     * 上次扫描时已没有待重建的高频项表；出现缺失或损坏的表时复位
+     */
+    private volatile boolean sketchesComplete;
+
+    public EmotionStatsRollup(EmotionAnalysisConfig emotionAnalysisConfig,
+                              NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        this.emotionAnalysisConfig = emotionAnalysisConfig;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.jdbcTemplate = namedParameterJdbcTemplate.getJdbcTemplate();
+        this.rebuildTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 累加新写入的分析结果（须在写入分析结果的事务内调用）
+     */
+    public void increment(List<EmotionAnalysisWriter.AnalyzedMessage> written) {
+        // 按用户ID排序写入，避免并发批次互相死锁
+        Map<Long, long[]> deltas = new TreeMap<>();
+        Map<Long, List<String>> keywords = new HashMap<>();
+        for (EmotionAnalysisWriter.AnalyzedMessage item : written) {
+            if (item.userId() == null) {
+                continue;
+            }
+            List<String> userKeywords = keywords.computeIfAbsent(item.userId(), id -> new ArrayList<>());
+            splitKeywords(item.result().keywords(), userKeywords);
+            long[] delta = deltas.computeIfAbsent(item.userId(), id -> new long[3 + EMOTION_TYPES.length]);
+            EmotionAnalyzer.Result result = item.result();
+            delta[0]++;
+            if (result.valence() > POSITIVE_VALENCE) {
+                delta[1]++;
+            } else if (result.valence() < NEGATIVE_VALENCE) {
+                delta[2]++;
+            }
+            delta[3 + result.emotionType().ordinal()]++;
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((userId, delta) -> {
+            Object[] row = new Object[1 + delta.length];
+            row[0] = userId;
+            for (int i = 0; i < delta.length; i++) {
+                row[i + 1] = delta[i];
+            }
+            args.add(row);
+        });
+        jdbcTemplate.batchUpdate(UPSERT_STATS, args);
+        updateKeywordSketches(deltas, keywords);
+    }
+
+    /**
+     * 把新关键词计入各用户的高频项表（行锁已由上面的累加语句持有）
+     * 回填前的历史用户尚无高频项表时跳过，由后台任务从历史重建
+     */
+    private void updateKeywordSketches(Map<Long, long[]> deltas, Map<Long, List<String>> keywords) {
+        int capacity = emotionAnalysisConfig.getKeywordSketchCapacity();
+        List<Object[]> updates = new ArrayList<>();
+        namedParameterJdbcTemplate.query(LOCK_SKETCHES, new MapSqlParameterSource("userIds", deltas.keySet()), rs -> {
+            long userId = rs.getLong("user_id");
+            byte[] data = rs.getBytes("keyword_sketch");
+            SpaceSavingSketch sketch;
+            if (data != null) {
+                sketch = parseSketch(userId, data, capacity);
+                if (sketch == null) {
+                    updates.add(new Object[]{null, userId});
+                    sketchesComplete = false;
+                    return;
+                }
+            } else if (rs.getLong("total_count") == deltas.get(userId)[0]) {
+                sketch = new SpaceSavingSketch(capacity);
+            } else {
+                sketchesComplete = false;
+                return;
+            }
+            keywords.getOrDefault(userId, List.of()).forEach(sketch::offer);
+            updates.add(new Object[]{sketch.toBytes(), userId});
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SKETCH, updates);
+        }
+    }
+
+    /**
+     * 读取用户的统计汇总，尚无分析结果时返回空；高频项表尚未重建时关键词云为空
+     */
+    public Optional<Stats> find(Long userId) {
+        List<Stats> rows = jdbcTemplate.query(SELECT_STATS, (rs, rowNum) -> mapStats(userId, rs), userId);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * 定时分批重建缺失的关键词高频项表；全部重建后不再扫描，直到再次出现缺失
+     */
+    @Scheduled(initialDelayString = "${app.emotion.keyword-sketch-rebuild-interval:60000}",
+            fixedDelayString = "${app.emotion.keyword-sketch-rebuild-interval:60000}")
+    public void rebuildMissingSketches() {
+        if (sketchesComplete) {
+            return;
+        }
+        sketchesComplete = true;
+        List<Long> userIds = jdbcTemplate.queryForList(SELECT_MISSING_SKETCHES, Long.class,
+                emotionAnalysisConfig.getKeywordSketchRebuildBatchSize());
+        for (Long userId : userIds) {
+            try {
+                rebuildKeywordSketch(userId);
+            } catch (DataAccessException e) {
+                log.warn("用户关键词高频项重建失败，稍后重试: 用户ID={}, {}", userId, e.getMessage());
+            }
+        }
+        if (!userIds.isEmpty()) {
+            sketchesComplete = false;
+        }
+    }
+
+    /**
+     * 从历史分析结果重建关键词高频项表（每个用户只需一次），在独立事务中提交
+     */
+    private void rebuildKeywordSketch(Long userId) {
+        int capacity = emotionAnalysisConfig.getKeywordSketchCapacity();
+        rebuildTransactionTemplate.executeWithoutResult(status -> {
+            List<byte[]> locked = jdbcTemplate.query(LOCK_SKETCH, (rs, rowNum) -> rs.getBytes(1), userId);
+            if (locked.isEmpty()) {
+                return;
+            }
+            if (locked.get(0) != null && parseSketch(userId, locked.get(0), capacity) != null) {
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+            List<String> buffer = new ArrayList<>();
+            jdbcTemplate.query(SELECT_USER_KEYWORDS, rs -> {
+                buffer.clear();
+                splitKeywords(rs.getString(1), buffer);
+                buffer.forEach(sketch::offer);
+            }, userId);
+            jdbcTemplate.update(UPDATE_SKETCH, sketch.toBytes(), userId);
+            log.info("用户关键词高频项已重建: 用户ID={}, 词数={}, 耗时={}ms", userId, sketch.size(),
+                    System.currentTimeMillis() - startTime);
+        });
+    }
+
+    private Stats mapStats(Long userId, ResultSet rs) throws SQLException {
+        Map<EmotionAnalysis.EmotionType, Long> counts = new EnumMap<>(EmotionAnalysis.EmotionType.class);
+        for (EmotionAnalysis.EmotionType type : EMOTION_TYPES) {
+            long count = rs.getLong(columnOf(type));
+            if (count > 0) {
+                counts.put(type, count);
+            }
+        }
+        long total = rs.getLong("total_count");
+
+        byte[] data = rs.getBytes("keyword_sketch");
+        SpaceSavingSketch sketch = data != null
+                ? parseSketch(userId, data, emotionAnalysisConfig.getKeywordSketchCapacity())
+                : null;
+        // 尚无高频项表（或已损坏、等待重建）时不返回关键词云
+        List<SpaceSavingSketch.Entry> keywords = sketch != null
+                ? sketch.top(emotionAnalysisConfig.getKeywordCloudSize())
+                : List.of();
+
+        return new Stats(total, rs.getLong("positive_count"), rs.getLong("negative_count"),
+                Collections.unmodifiableMap(counts), keywords);
+    }
+
+    private static SpaceSavingSketch parseSketch(long userId, byte[] data, int capacity) {
+        try {
+            return SpaceSavingSketch.fromBytes(data, capacity);
+        } catch (IllegalArgumentException e) {
+            log.warn("用户关键词高频项数据损坏，将重建: 用户ID={}, {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void splitKeywords(String keywords, List<String> target) {
+        if (keywords == null || keywords.isEmpty()) {
+            return;
+        }
+        for (String keyword : keywords.split(",")) {
+            String trimmed = keyword.trim();
+            if (!trimmed.isEmpty()) {
+                target.add(trimmed);
+            }
+        }
+    }
+
+    private static String columnOf(EmotionAnalysis.EmotionType type) {
+        return type.name().toLowerCase(Locale.ROOT) + "_count";
+    }
+
+    /**
+     * 用户情感统计汇总
+     */
+    public record Stats(long total, long positive, long negative, Map<EmotionAnalysis.EmotionType, Long> counts,
+                        List<SpaceSavingSketch.Entry> keywords) {
+
+        public long neutral() {
+            return total - positive - negative;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ai.love.service;
+
+import com.ai.love.config.EmotionAnalysisConfig;
+import com.ai.love.dto.emotion.EmotionTrendResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 用户每日情感汇总（user_emotion_daily）
+ * 情感分析结果写入时按用户和日期累加效价、强度之和，趋势查询最多读取区间内每天一行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmotionTrendRollup {
+
+    private static final String UPSERT_DAILY =
+            "INSERT INTO user_emotion_daily (user_id, stat_date, analysis_count, valence_sum, intensity_sum) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE analysis_count = analysis_count + VALUES(analysis_count), " +
+            "valence_sum = valence_sum + VALUES(valence_sum), " +
+            "intensity_sum = intensity_sum + VALUES(intensity_sum)";
+    private static final String SELECT_TREND =
+            "SELECT stat_date, valence_sum / analysis_count AS average_valence, " +
+            "intensity_sum / analysis_count AS average_intensity FROM user_emotion_daily " +
+            "WHERE user_id = ? AND stat_date >= ? AND analysis_count > 0 ORDER BY stat_date";
+    private static final String BACKFILL_DAY =
+            "INSERT INTO user_emotion_daily (user_id, stat_date, analysis_count, valence_sum, intensity_sum) " +
+            "SELECT c.user_id, ?, COUNT(*), COALESCE(SUM(e.valence), 0), COALESCE(SUM(e.intensity), 0) " +
+            "FROM emotion_analysis e JOIN conversations c ON c.id = e.conversation_id " +
+            "WHERE e.created_at >= ? AND e.created_at < ? GROUP BY c.user_id " +
+            "ON DUPLICATE KEY UPDATE analysis_count = VALUES(analysis_count), " +
+            "valence_sum = VALUES(valence_sum), intensity_sum = VALUES(intensity_sum)";
+
+    private final EmotionAnalysisConfig emotionAnalysisConfig;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("maintenanceExecutor")
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+
+    /**
+     * 累加新写入的分析结果（须在写入分析结果的事务内调用）
+     */
+    public void increment(List<EmotionAnalysisWriter.AnalyzedMessage> written, LocalDate date) {
+        // 按用户ID排序写入，避免并发批次互相死锁
+        Map<Long, double[]> deltas = new TreeMap<>();
+        for (EmotionAnalysisWriter.AnalyzedMessage item : written) {
+            if (item.userId() == null) {
+                continue;
+            }
+            double[] delta = deltas.computeIfAbsent(item.userId(), id -> new double[3]);
+            delta[0]++;
+            delta[1] += item.result().valence();
+            delta[2] += item.result().intensity();
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Date statDate = Date.valueOf(date);
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((userId, delta) -> args.add(new Object[]{userId, statDate, (long) delta[0], delta[1], delta[2]}));
+        jdbcTemplate.batchUpdate(UPSERT_DAILY, args);
+    }
+
+    /**
+     * 查询用户自指定日期起的每日情感趋势
+     */
+    public List<EmotionTrendResponse> findTrend(Long userId, LocalDate startDate) {
+        return jdbcTemplate.query(SELECT_TREND, (rs, rowNum) -> EmotionTrendResponse.builder()
+                .date(rs.getDate("stat_date"))
+                .averageValence(rs.getDouble("average_valence"))
+                .averageIntensity(rs.getDouble("average_intensity"))
+                .build(), userId, Date.valueOf(startDate));
+    }
+
+    /**
+     * 启动后在维护线程池中回填历史数据（需开启 app.emotion.trend-backfill-enabled）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBackfill() {
+        if (Boolean.TRUE.equals(emotionAnalysisConfig.getTrendBackfillEnabled())) {
+            maintenanceExecutor.execute(() -> backfill(emotionAnalysisConfig.getTrendBackfillDays()));
+        }
+    }
+
+    /**
+     * 按天从 emotion_analysis 重算最近若干个完整日期（不含今天）的汇总，每天一个事务，可重复执行
+     * 今天的数据只由写入路径累加，避免与并发写入互相覆盖
+     */
+    public void backfill(int days) {
+        long startTime = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        int filled = 0;
+        for (int offset = 1; offset <= days; offset++) {
+            LocalDate date = today.minusDays(offset);
+            try {
+                Integer rows = transactionTemplate.execute(status -> jdbcTemplate.update(BACKFILL_DAY,
+                        Date.valueOf(date), Timestamp.valueOf(date.atStartOfDay()),
+                        Timestamp.valueOf(date.plusDays(1).atStartOfDay())));
+                if (rows != null && rows > 0) {
+                    filled++;
+                }
+            } catch (Exception e) {
+                log.error("情感趋势回填失败: 日期={}", date, e);
+            }
+        }
+        log.info("情感趋势回填完成: 天数={}, 有数据的天数={}, 耗时={}ms", days, filled,
+                System.currentTimeMillis() - startTime);
+    }
+}
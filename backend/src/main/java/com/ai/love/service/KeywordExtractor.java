@@ -0,0 +1,129 @@
+package com.ai.love.service;
+
+import com.ai.love.config.EmotionAnalysisConfig;
+import com.ai.love.util.ChineseSegmenter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 关键词提取
+ * 词典分词后过滤停用词，按 TF-IDF（词频 × 词典中的逆文档频率）取得分最高的若干词；
+ * 未登录汉字的二元组若含单字停用词（如“的”“了”）则不作为候选
+ */
+@Slf4j
+@Component
+public class KeywordExtractor {
+
+    private final ChineseSegmenter segmenter;
+    private final Map<String, Double> idf;
+    private final Set<String> stopwords;
+    private final Set<Integer> stopChars;
+    private final double defaultIdf;
+    private final int maxKeywords;
+
+    public KeywordExtractor(EmotionAnalysisConfig emotionAnalysisConfig, ResourceLoader resourceLoader) {
+        this.defaultIdf = emotionAnalysisConfig.getKeywordDefaultIdf();
+        this.maxKeywords = emotionAnalysisConfig.getMaxKeywords();
+
+        Resource dictionary = resourceLoader.getResource(emotionAnalysisConfig.getKeywordDictionaryPath());
+        Resource stopwordList = resourceLoader.getResource(emotionAnalysisConfig.getStopwordsPath());
+        try {
+            this.idf = loadDictionary(dictionary);
+            this.stopwords = new HashSet<>(readLines(stopwordList));
+        } catch (IOException e) {
+            throw new IllegalStateException("关键词词典加载失败", e);
+        }
+        this.stopChars = stopwords.stream()
+                .filter(word -> word.codePointCount(0, word.length()) == 1)
+                .map(word -> word.codePointAt(0))
+                .filter(Character::isIdeographic)
+                .collect(Collectors.toSet());
+        this.segmenter = ChineseSegmenter.of(idf.keySet());
+        log.info("关键词词典已加载: 词条={}, 停用词={}", idf.size(), stopwords.size());
+    }
+
+    /**
+     * 提取关键词，逗号分隔
+     *
+     * @param content 已转小写的文本
+     */
+    public String extract(String content) {
+        Map<String, Integer> termFrequency = new LinkedHashMap<>();
+        for (String token : segmenter.segment(content)) {
+            if (isCandidate(token)) {
+                termFrequency.merge(token, 1, Integer::sum);
+            }
+        }
+        if (termFrequency.isEmpty()) {
+            return "";
+        }
+
+        // 同分时按首次出现顺序（排序是稳定的）
+        return termFrequency.entrySet().stream()
+                .sorted((a, b) -> Double.compare(score(b.getKey(), b.getValue()), score(a.getKey(), a.getValue())))
+                .limit(maxKeywords)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.joining(","));
+    }
+
+    private boolean isCandidate(String token) {
+        if (token.codePointCount(0, token.length()) < 2 || stopwords.contains(token)) {
+            return false;
+        }
+        if (!idf.containsKey(token) && token.codePoints().anyMatch(stopChars::contains)) {
+            return false;
+        }
+        return !token.chars().allMatch(Character::isDigit);
+    }
+
+    private double score(String token, int frequency) {
+        return frequency * idf.getOrDefault(token, defaultIdf);
+    }
+
+    private static Map<String, Double> loadDictionary(Resource resource) throws IOException {
+        Map<String, Double> dictionary = new HashMap<>();
+        for (String line : readLines(resource)) {
+            String[] fields = line.split("\t");
+            try {
+                dictionary.put(fields[0].strip(), fields.length > 1 ? Double.parseDouble(fields[1].strip()) : 1.0);
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("关键词词典格式错误: " + line, e);
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * 读取非空、非注释行并转为小写
+     */
+    private static List<String> readLines(Resource resource) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ai.love.service;
+
+import com.ai.love.util.CoalescingCounter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 使用量计数服务
+ * 对话消息数、角色使用次数、令牌消耗和用户登录次数先在内存中按ID合并累加，定时以批量 UPDATE 增量写库，
+ * 避免每轮对话对同一行做读-改-写，也消除热门角色行上的锁竞争
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UsageCounterService {
+
+    private static final String UPDATE_CONVERSATION_MESSAGES =
+            "UPDATE conversations SET message_count = message_count + ?, " +
+            "last_message_at = GREATEST(COALESCE(last_message_at, ?), ?) WHERE id = ?";
+    private static final String UPDATE_CHARACTER_USAGE =
+            "UPDATE ai_characters SET usage_count = usage_count + ? WHERE id = ?";
+    private static final String UPDATE_CONVERSATION_TOKENS =
+            "UPDATE conversations SET total_tokens = total_tokens + ? WHERE id = ?";
+    private static final String UPDATE_USER_TOKENS =
+            "UPDATE users SET total_tokens = total_tokens + ? WHERE id = ?";
+    private static final String UPDATE_CHARACTER_TOKENS =
+            "UPDATE ai_characters SET total_tokens = total_tokens + ? WHERE id = ?";
+    private static final String UPDATE_USER_LOGINS =
+            "UPDATE users SET login_count = login_count + ?, " +
+            "last_login_at = GREATEST(COALESCE(last_login_at, ?), ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final CoalescingCounter conversationMessages = new CoalescingCounter();
+    private final ConcurrentHashMap<Long, LocalDateTime> conversationLastMessageAt = new ConcurrentHashMap<>();
+    private final CoalescingCounter characterUsage = new CoalescingCounter();
+    private final CoalescingCounter conversationTokens = new CoalescingCounter();
+    private final CoalescingCounter userTokens = new CoalescingCounter();
+    private final CoalescingCounter characterTokens = new CoalescingCounter();
+    private final CoalescingCounter userLogins = new CoalescingCounter();
+    private final ConcurrentHashMap<Long, LocalDateTime> userLastLoginAt = new ConcurrentHashMap<>();
+
+    /**
+     * 记录对话新增消息（在事务中调用时，提交后才计入）
+     */
+    public void recordMessage(Long conversationId, LocalDateTime messageTime) {
+        if (conversationId == null) {
+            return;
+        }
+        LocalDateTime time = messageTime != null ? messageTime : LocalDateTime.now();
+        afterCommit(() -> {
+            conversationLastMessageAt.merge(conversationId, time, (a, b) -> a.isAfter(b) ? a : b);
+            conversationMessages.add(conversationId, 1);
+        });
+    }
+
+    /**
+     * 记录角色被使用一次（一轮对话，在事务中调用时，提交后才计入）
+     */
+    public void recordCharacterUsage(Long characterId) {
+        afterCommit(() -> characterUsage.add(characterId, 1));
+    }
+
+    /**
+     * 记录一次模型调用的令牌消耗（在事务中调用时，提交后才计入）
+     */
+    public void recordTokens(Long conversationId, Long userId, Long characterId, int tokens) {
+        if (tokens <= 0) {
+            return;
+        }
+        afterCommit(() -> {
+            conversationTokens.add(conversationId, tokens);
+            userTokens.add(userId, tokens);
+            characterTokens.add(characterId, tokens);
+        });
+    }
+
+    /**
+     * 记录用户登录一次（登录次数与最后登录时间不在登录请求中写库）
+     */
+    public void recordLogin(Long userId, LocalDateTime loginTime) {
+        if (userId == null) {
+            return;
+        }
+        userLastLoginAt.merge(userId, loginTime, (a, b) -> a.isAfter(b) ? a : b);
+        userLogins.add(userId, 1);
+    }
+
+    /**
+     * 定时写入累计的增量
+     */
+    @Scheduled(fixedDelayString = "${app.stats.flush-interval:5000}")
+    public void flush() {
+        flushWithLastTime(conversationMessages, conversationLastMessageAt, UPDATE_CONVERSATION_MESSAGES);
+        flushWithLastTime(userLogins, userLastLoginAt, UPDATE_USER_LOGINS);
+        flush(characterUsage, UPDATE_CHARACTER_USAGE);
+        flush(conversationTokens, UPDATE_CONVERSATION_TOKENS);
+        flush(userTokens, UPDATE_USER_TOKENS);
+        flush(characterTokens, UPDATE_CHARACTER_TOKENS);
+    }
+
+    /**
+     * 停机前写入剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 写入计数与最后发生时间（对话消息数与最后消息时间、登录次数与最后登录时间，同一ID合并为一行）
+     */
+    private void flushWithLastTime(CoalescingCounter counter, ConcurrentHashMap<Long, LocalDateTime> lastTimes,
+                                   String sql) {
+        Map<Long, Long> deltas = counter.drain();
+        Map<Long, LocalDateTime> drainedTimes = new HashMap<>();
+        for (Long id : deltas.keySet()) {
+            LocalDateTime time = lastTimes.remove(id);
+            if (time != null) {
+                drainedTimes.put(id, time);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((id, delta) -> {
+            Timestamp time = Timestamp.valueOf(drainedTimes.getOrDefault(id, LocalDateTime.now()));
+            batchArgs.add(new Object[]{delta, time, time, id});
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batchArgs));
+            log.debug("计数与时间写入完成: {} 行", batchArgs.size());
+        } catch (DataAccessException e) {
+            log.warn("计数与时间写入失败，稍后重试: {}", e.getMessage());
+            drainedTimes.forEach((id, time) -> lastTimes.merge(id, time, (a, b) -> a.isAfter(b) ? a : b));
+            counter.restore(deltas);
+        }
+    }
+
+    private void flush(CoalescingCounter counter, String sql) {
+        Map<Long, Long> deltas = counter.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // 按ID排序加锁，避免多实例同时写库时死锁
+        List<Object[]> batchArgs = deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batchArgs));
+            log.debug("使用量计数写入完成: {} 行", batchArgs.size());
+        } catch (DataAccessException e) {
+            // 整批回滚，放回增量等下个周期重试
+            log.warn("使用量计数写入失败，稍后重试: {}", e.getMessage());
+            counter.restore(deltas);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ai.love.service;
 
 import com.ai.love.entity.User;
 import com.ai.love.repository.UserRepository;
+import com.ai.love.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * Spring Security用户详情服务实现
@@ -66,7 +68,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         public static UserPrincipal create(User user) {
             Collection<GrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority("ROLE_USER")
+                new SimpleGrantedAuthority(JwtUtil.DEFAULT_ROLE)
             );
 
             return new UserPrincipal(
@@ -79,6 +81,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             );
         }
 
+        /**
+         * 由已验证的JWT声明构建主体（不含邮箱和密码，无需查询数据库）
+         */
+        public static UserPrincipal fromToken(Long id, String username, User.UserStatus status, List<String> roles) {
+            List<GrantedAuthority> authorities = roles == null || roles.isEmpty()
+                ? Collections.singletonList(new SimpleGrantedAuthority(JwtUtil.DEFAULT_ROLE))
+                : roles.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+
+            return new UserPrincipal(id, username, null, null, status, authorities);
+        }
+
         public Long getId() {
             return id;
         }
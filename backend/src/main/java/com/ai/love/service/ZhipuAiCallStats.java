@@ -0,0 +1,81 @@
+package com.ai.love.service;
+
+import com.ai.love.config.ZhipuAiConfig;
+import org.springframework.stereotype.Component;
+
+/**
+ * 智谱AI调用统计
+ * 保存最近若干次真实调用的结果与耗时，供健康检查被动判断服务状态，无需额外调用模型
+ */
+@Component
+public class ZhipuAiCallStats {
+
+    private final ZhipuAiConfig zhipuAiConfig;
+    private final long[] timestamps;
+    private final long[] latencies;
+    private final boolean[] successes;
+    private int next;
+    private int size;
+    private long lastSuccessAt;
+    private long lastFailureAt;
+
+    public ZhipuAiCallStats(ZhipuAiConfig zhipuAiConfig) {
+        this.zhipuAiConfig = zhipuAiConfig;
+        int capacity = Math.max(1, zhipuAiConfig.getHealthWindowSize());
+        this.timestamps = new long[capacity];
+        this.latencies = new long[capacity];
+        this.successes = new boolean[capacity];
+    }
+
+    /**
+     * 记录一次调用结果
+     */
+    public synchronized void record(boolean success, long latencyMs) {
+        long now = System.currentTimeMillis();
+        timestamps[next] = now;
+        latencies[next] = latencyMs;
+        successes[next] = success;
+        next = (next + 1) % timestamps.length;
+        size = Math.min(size + 1, timestamps.length);
+        if (success) {
+            lastSuccessAt = now;
+        } else {
+            lastFailureAt = now;
+        }
+    }
+
+    /**
+     * 统计窗口内（最近N次且不早于窗口时长）的调用情况
+     */
+    public synchronized Snapshot snapshot() {
+        long since = System.currentTimeMillis() - zhipuAiConfig.getHealthWindow();
+        int calls = 0;
+        int failures = 0;
+        long totalLatency = 0;
+        long maxLatency = 0;
+        for (int i = 0; i < size; i++) {
+            if (timestamps[i] < since) {
+                continue;
+            }
+            calls++;
+            if (!successes[i]) {
+                failures++;
+            }
+            totalLatency += latencies[i];
+            maxLatency = Math.max(maxLatency, latencies[i]);
+        }
+        return new Snapshot(calls, failures, calls > 0 ? totalLatency / calls : 0, maxLatency,
+                lastSuccessAt, lastFailureAt);
+    }
+
+    /**
+     * 调用统计快照
+     */
+    public record Snapshot(int calls, int failures, long avgLatencyMs, long maxLatencyMs,
+                           long lastSuccessAt, long lastFailureAt) {
+
+        public double successRate() {
+            return calls > 0 ? (double) (calls - failures) / calls : 1.0;
+        }
+    }
+}
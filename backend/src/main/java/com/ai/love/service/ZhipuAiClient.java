@@ -12,8 +12,15 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * 智谱AI客户端
@@ -23,9 +30,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ZhipuAiClient {
 
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+    private static final int PROBE_MAX_TOKENS = 8;
+
     private final ZhipuAiConfig zhipuAiConfig;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final ZhipuAiGuard zhipuAiGuard;
+    private final ZhipuAiResponseCache responseCache;
 
     /**
      * 发送聊天请求
@@ -38,31 +51,26 @@ public class ZhipuAiClient {
      * 发送聊天请求（带参数）
      */
     public ChatResponse chat(List<ChatMessage> messages, Double temperature, Integer maxTokens, String systemPrompt) {
-        try {
-            // 构建请求
-            ChatRequest request = ChatRequest.builder()
-                    .model(zhipuAiConfig.getModel())
-                    .messages(messages)
-                    .temperature(temperature != null ? temperature : zhipuAiConfig.getTemperature())
-                    .maxTokens(maxTokens != null ? maxTokens : zhipuAiConfig.getMaxTokens())
-                    .stream(zhipuAiConfig.getStreamEnabled())
-                    .build();
-
-            // 如果有系统提示词，创建新的消息列表并添加系统提示词
-            if (systemPrompt != null && !systemPrompt.trim().isEmpty()) {
-                List<ChatMessage> messagesWithSystem = new ArrayList<>();
-                messagesWithSystem.add(ChatMessage.builder()
-                        .role("system")
-                        .content(systemPrompt)
-                        .build());
-                messagesWithSystem.addAll(messages);
-                request = request.toBuilder().messages(messagesWithSystem).build();
-            }
+        String cacheKey = cacheKeyFor(messages, temperature, maxTokens, systemPrompt);
+        ChatResponse cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            log.debug("命中AI回复缓存: {}", cacheKey);
+            return cached;
+        }
 
-            // 设置请求头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(zhipuAiConfig.getApiKey());
+        ChatResponse chatResponse = requestChat(messages, temperature, maxTokens, systemPrompt);
+        responseCache.put(cacheKey, chatResponse);
+        return chatResponse;
+    }
+
+    /**
+     * 向模型发送非流式请求（不经过回复缓存）
+     */
+    private ChatResponse requestChat(List<ChatMessage> messages, Double temperature, Integer maxTokens,
+                                     String systemPrompt) {
+        try {
+            ChatRequest request = buildRequest(messages, temperature, maxTokens, systemPrompt, false);
+            HttpHeaders headers = buildHeaders();
 
             HttpEntity<ChatRequest> entity = new HttpEntity<>(request, headers);
 
@@ -70,12 +78,9 @@ public class ZhipuAiClient {
             String url = zhipuAiConfig.getBaseUrl() + "chat/completions";
             log.debug("发送智谱AI请求: {}", url);
 
-            ResponseEntity<ChatResponse> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    entity,
-                    ChatResponse.class
-            );
+            ResponseEntity<ChatResponse> response = zhipuAiGuard.execute("chat",
+                    () -> restTemplate.exchange(url, HttpMethod.POST, entity, ChatResponse.class),
+                    () -> true);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 ChatResponse chatResponse = response.getBody();
@@ -98,6 +103,8 @@ public class ZhipuAiClient {
                 throw new BusinessException("AI服务暂时不可用");
             }
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("智谱AI请求异常: ", e);
             String errorMessage = e.getMessage() != null ? e.getMessage() : "未知错误";
@@ -105,6 +112,172 @@ public class ZhipuAiClient {
         }
     }
 
+    /**
+     * 发送流式聊天请求
+     * 每收到一段增量内容即回调 onDelta，返回拼接后的完整响应；未启用流式时退化为一次性回调完整内容
+     */
+    public ChatResponse streamChat(List<ChatMessage> messages, Double temperature, Integer maxTokens,
+                                   String systemPrompt, Consumer<String> onDelta) {
+        if (!Boolean.TRUE.equals(zhipuAiConfig.getStreamEnabled())) {
+            ChatResponse response = chat(messages, temperature, maxTokens, systemPrompt);
+            onDelta.accept(extractContent(response));
+            return response;
+        }
+
+        String cacheKey = cacheKeyFor(messages, temperature, maxTokens, systemPrompt);
+        ChatResponse cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            log.debug("命中AI回复缓存: {}", cacheKey);
+            onDelta.accept(extractContent(cached));
+            return cached;
+        }
+
+        try {
+            ChatRequest request = buildRequest(messages, temperature, maxTokens, systemPrompt, true);
+            HttpHeaders headers = buildHeaders();
+            headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+
+            HttpEntity<ChatRequest> entity = new HttpEntity<>(request, headers);
+
+            String url = zhipuAiConfig.getBaseUrl() + "chat/completions";
+            log.debug("发送智谱AI流式请求: {}", url);
+
+            // 已向调用方输出增量内容后不再重试，避免重复内容
+            AtomicBoolean emitted = new AtomicBoolean(false);
+            Consumer<String> trackingDelta = delta -> {
+                emitted.set(true);
+                onDelta.accept(delta);
+            };
+
+            ChatResponse chatResponse = zhipuAiGuard.execute("stream",
+                    () -> restTemplate.execute(
+                            url,
+                            HttpMethod.POST,
+                            restTemplate.httpEntityCallback(entity),
+                            response -> readStream(response.getBody(), trackingDelta)),
+                    () -> !emitted.get());
+
+            log.debug("智谱AI流式响应完成: {}", chatResponse);
+            responseCache.put(cacheKey, chatResponse);
+            return chatResponse;
+
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("智谱AI流式请求异常: ", e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "未知错误";
+            throw new BusinessException("AI对话失败: " + errorMessage);
+        }
+    }
+
+    /**
+     * 解析SSE响应流（data: {...} 行，以 data: [DONE] 结束）
+     */
+    private ChatResponse readStream(InputStream body, Consumer<String> onDelta) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        StringBuilder content = new StringBuilder();
+        ChatResponse lastChunk = null;
+        ChatResponse.Usage usage = null;
+        String finishReason = null;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith(SSE_DATA_PREFIX)) {
+                continue;
+            }
+            String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+            if (data.isEmpty()) {
+                continue;
+            }
+            if (SSE_DONE.equals(data)) {
+                break;
+            }
+
+            ChatResponse chunk = objectMapper.readValue(data, ChatResponse.class);
+            lastChunk = chunk;
+            if (chunk.getUsage() != null) {
+                usage = chunk.getUsage();
+            }
+            if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+                continue;
+            }
+
+            ChatResponse.Choice choice = chunk.getChoices().get(0);
+            if (choice.getFinishReason() != null) {
+                finishReason = choice.getFinishReason();
+            }
+            if (choice.getDelta() != null && choice.getDelta().getContent() != null
+                    && !choice.getDelta().getContent().isEmpty()) {
+                String delta = choice.getDelta().getContent();
+                content.append(delta);
+                onDelta.accept(delta);
+            }
+        }
+
+        // 组装为与非流式一致的完整响应
+        ChatResponse.Choice choice = new ChatResponse.Choice();
+        choice.setIndex(0);
+        choice.setMessage(ChatMessage.assistant(content.toString()));
+        choice.setFinishReason(finishReason);
+
+        ChatResponse assembled = new ChatResponse();
+        if (lastChunk != null) {
+            assembled.setId(lastChunk.getId());
+            assembled.setCreated(lastChunk.getCreated());
+            assembled.setModel(lastChunk.getModel());
+        }
+        assembled.setObject("chat.completion");
+        assembled.setChoices(List.of(choice));
+        assembled.setUsage(usage);
+        return assembled;
+    }
+
+    /**
+     * 构建请求体
+     */
+    private ChatRequest buildRequest(List<ChatMessage> messages, Double temperature, Integer maxTokens,
+                                     String systemPrompt, boolean stream) {
+        ChatRequest request = ChatRequest.builder()
+                .model(zhipuAiConfig.getModel())
+                .messages(messages)
+                .temperature(temperature != null ? temperature : zhipuAiConfig.getTemperature())
+                .maxTokens(maxTokens != null ? maxTokens : zhipuAiConfig.getMaxTokens())
+                .stream(stream)
+                .build();
+
+        // 如果有系统提示词，创建新的消息列表并添加系统提示词
+        if (systemPrompt != null && !systemPrompt.trim().isEmpty()) {
+            List<ChatMessage> messagesWithSystem = new ArrayList<>();
+            messagesWithSystem.add(ChatMessage.builder()
+                    .role("system")
+                    .content(systemPrompt)
+                    .build());
+            messagesWithSystem.addAll(messages);
+            request = request.toBuilder().messages(messagesWithSystem).build();
+        }
+        return request;
+    }
+
+    /**
+     * 计算回复缓存键（按实际生效的温度和最大令牌数），不可缓存时返回 null
+     */
+    private String cacheKeyFor(List<ChatMessage> messages, Double temperature, Integer maxTokens, String systemPrompt) {
+        return responseCache.keyFor(messages,
+                temperature != null ? temperature : zhipuAiConfig.getTemperature(),
+                maxTokens != null ? maxTokens : zhipuAiConfig.getMaxTokens(),
+                systemPrompt);
+    }
+
+    /**
+     * 构建请求头
+     */
+    private HttpHeaders buildHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(zhipuAiConfig.getApiKey());
+        return headers;
+    }
+
     /**
      * 简单文本对话
      */
@@ -152,7 +325,7 @@ public class ZhipuAiClient {
     /**
      * 提取响应内容
      */
-    private String extractContent(ChatResponse response) {
+    public String extractContent(ChatResponse response) {
         if (response != null && 
             response.getChoices() != null && 
             !response.getChoices().isEmpty()) {
@@ -172,10 +345,12 @@ public class ZhipuAiClient {
 
     /**
      * 检查API连接
+     * 绕过回复缓存并限制回复长度，仅用于低频的主动探测
      */
     public boolean checkConnection() {
         try {
-            String testResponse = simpleChat("你好");
+            ChatResponse response = requestChat(List.of(ChatMessage.user("你好")), null, PROBE_MAX_TOKENS, null);
+            String testResponse = extractContent(response);
             return testResponse != null && !testResponse.trim().isEmpty();
         } catch (Exception e) {
             log.warn("智谱AI连接检查失败: {}", e.getMessage());
@@ -0,0 +1,312 @@
+package com.ai.love.service;
+
+import com.ai.love.config.ZhipuAiConfig;
+import com.ai.love.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 智谱AI调用保护
+ * 舱壁限制并发调用数，熔断器在服务端持续故障时快速失败，对429/5xx/连接失败按抖动指数退避重试。
+ * 生成调用不是幂等的：读超时时服务端可能仍在生成并计费，只计入熔断而不重试；重试总耗时不超过重试预算
+ */
+@Slf4j
+@Component
+public class ZhipuAiGuard {
+
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+
+    /**
+     * 熔断器状态
+     */
+    enum CircuitState {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final ZhipuAiConfig zhipuAiConfig;
+    private final ZhipuAiCallStats callStats;
+    private final Clock clock;
+    private final Semaphore bulkhead;
+    private final AtomicReference<CircuitState> circuitState = new AtomicReference<>(CircuitState.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter clientErrorCounter;
+    private final Counter authFailureCounter;
+    private final Counter rejectedCounter;
+    private final Counter shortCircuitedCounter;
+    private final Counter retryCounter;
+
+    @Autowired
+    public ZhipuAiGuard(ZhipuAiConfig zhipuAiConfig, ZhipuAiCallStats callStats, MeterRegistry meterRegistry) {
+        this(zhipuAiConfig, callStats, meterRegistry, Clock.systemUTC());
+    }
+
+    ZhipuAiGuard(ZhipuAiConfig zhipuAiConfig, ZhipuAiCallStats callStats, MeterRegistry meterRegistry, Clock clock) {
+        this.zhipuAiConfig = zhipuAiConfig;
+        this.callStats = callStats;
+        this.clock = clock;
+        this.bulkhead = new Semaphore(zhipuAiConfig.getMaxConcurrentCalls());
+
+        this.successCounter = callCounter(meterRegistry, "success");
+        this.failureCounter = callCounter(meterRegistry, "failure");
+        this.clientErrorCounter = callCounter(meterRegistry, "client_error");
+        this.authFailureCounter = callCounter(meterRegistry, "auth_failure");
+        this.rejectedCounter = callCounter(meterRegistry, "rejected");
+        this.shortCircuitedCounter = callCounter(meterRegistry, "short_circuited");
+        this.retryCounter = Counter.builder("zhipu.ai.retries")
+                .description("智谱AI调用重试次数")
+                .register(meterRegistry);
+        Gauge.builder("zhipu.ai.circuit.state", circuitState, state -> state.get().ordinal())
+                .description("熔断器状态（0=关闭，1=半开，2=打开）")
+                .register(meterRegistry);
+        Gauge.builder("zhipu.ai.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("舱壁剩余可用并发数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在保护下执行调用
+     *
+     * @param operation    操作名称（用于日志）
+     * @param call         单次调用
+     * @param canRetry     本次失败后是否仍允许重试（如流式调用已向客户端输出内容则不可重试）
+     */
+    public <T> T execute(String operation, Supplier<T> call, BooleanSupplier canRetry) {
+        int maxAttempts = Math.max(0, zhipuAiConfig.getRetryCount()) + 1;
+        long deadline = clock.millis() + zhipuAiConfig.getRetryBudget();
+
+        for (int attempt = 1; ; attempt++) {
+            acquirePermission(operation);
+            if (!acquireBulkhead()) {
+                // 半开状态的试探调用未能执行，退回打开状态等待下一次试探
+                circuitState.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN);
+                rejectedCounter.increment();
+                log.warn("智谱AI并发调用已达上限，拒绝请求: {}", operation);
+                throw new BusinessException("AI服务繁忙，请稍后重试", HTTP_SERVICE_UNAVAILABLE);
+            }
+
+            long delay;
+            long startTime = clock.millis();
+            try {
+                T result = call.get();
+                onSuccess(clock.millis() - startTime);
+                return result;
+            } catch (RuntimeException e) {
+                if (isAuthFailure(e)) {
+                    onAuthFailure(operation, clock.millis() - startTime);
+                    throw e;
+                }
+                if (!isProviderFailure(e)) {
+                    onClientError(clock.millis() - startTime);
+                    throw e;
+                }
+                onFailure(operation, clock.millis() - startTime);
+                if (attempt >= maxAttempts || !isRetryable(e) || !canRetry.getAsBoolean()) {
+                    throw e;
+                }
+                delay = backoffDelay(attempt, e);
+                // 下一次尝试最坏情况下要到单次超时才结束，超出重试预算则不再重试
+                if (clock.millis() + delay + zhipuAiConfig.getTimeout() > deadline) {
+                    log.warn("智谱AI调用失败，重试预算不足，放弃重试: {}, 原因: {}", operation, e.getMessage());
+                    throw e;
+                }
+                log.warn("智谱AI调用失败，{}ms后第{}次重试: {}, 原因: {}", delay, attempt, operation, e.getMessage());
+            } catch (Error e) {
+                // 调用抛出Error时结果未知，半开试探按失败处理，否则熔断器会一直停留在半开状态
+                reopenIfHalfOpen();
+                throw e;
+            } finally {
+                bulkhead.release();
+            }
+
+            retryCounter.increment();
+            sleep(delay);
+        }
+    }
+
+    /**
+     * 熔断器当前状态
+     */
+    public CircuitState getCircuitState() {
+        return circuitState.get();
+    }
+
+    /**
+     * 熔断检查：打开状态下快速失败，冷却期结束后只放行一个试探调用
+     */
+    private void acquirePermission(String operation) {
+        CircuitState state = circuitState.get();
+        if (state == CircuitState.CLOSED) {
+            return;
+        }
+        if (state == CircuitState.OPEN
+                && clock.millis() - openedAt.get() >= zhipuAiConfig.getCircuitOpenDuration()
+                && circuitState.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN)) {
+            log.info("智谱AI熔断器进入半开状态，放行试探调用: {}", operation);
+            return;
+        }
+        shortCircuitedCounter.increment();
+        throw new BusinessException("AI服务暂时不可用，请稍后重试", HTTP_SERVICE_UNAVAILABLE);
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(zhipuAiConfig.getBulkheadWaitTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void onSuccess(long latencyMs) {
+        successCounter.increment();
+        callStats.record(true, latencyMs);
+        consecutiveFailures.set(0);
+        if (circuitState.getAndSet(CircuitState.CLOSED) != CircuitState.CLOSED) {
+            log.info("智谱AI调用恢复，熔断器关闭");
+        }
+    }
+
+    /**
+     * 参数错误等调用方问题：服务端可达，不计入熔断，健康统计按可用处理
+     */
+    private void onClientError(long latencyMs) {
+        clientErrorCounter.increment();
+        callStats.record(true, latencyMs);
+        consecutiveFailures.set(0);
+        if (circuitState.getAndSet(CircuitState.CLOSED) != CircuitState.CLOSED) {
+            log.info("智谱AI调用恢复，熔断器关闭");
+        }
+    }
+
+    /**
+     * 401/403：密钥失效或无权限，熔断和重试都无济于事，不计入熔断；
+     * 但服务对本实例实际不可用，计入健康统计。半开试探未得出结论，退回打开状态等待下一次试探
+     */
+    private void onAuthFailure(String operation, long latencyMs) {
+        authFailureCounter.increment();
+        callStats.record(false, latencyMs);
+        reopenIfHalfOpen();
+        log.error("智谱AI鉴权失败，请检查API Key: {}", operation);
+    }
+
+    private void onFailure(String operation, long latencyMs) {
+        failureCounter.increment();
+        callStats.record(false, latencyMs);
+        int failures = consecutiveFailures.incrementAndGet();
+        if (circuitState.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN)
+                || (failures >= zhipuAiConfig.getCircuitFailureThreshold()
+                    && circuitState.compareAndSet(CircuitState.CLOSED, CircuitState.OPEN))) {
+            openedAt.set(clock.millis());
+            log.error("智谱AI连续失败{}次，熔断器打开{}ms: {}", failures, zhipuAiConfig.getCircuitOpenDuration(), operation);
+        }
+    }
+
+    /**
+     * 半开试探未得出结论时退回打开状态，冷却期重新计算
+     */
+    private void reopenIfHalfOpen() {
+        if (circuitState.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN)) {
+            openedAt.set(clock.millis());
+        }
+    }
+
+    /**
+     * 是否为服务端故障（计入熔断）：429、5xx、网络错误及超时
+     */
+    static boolean isProviderFailure(RuntimeException e) {
+        if (e instanceof HttpStatusCodeException statusException) {
+            HttpStatusCode status = statusException.getStatusCode();
+            return status.value() == 429 || status.is5xxServerError();
+        }
+        return e instanceof ResourceAccessException;
+    }
+
+    /**
+     * 是否为鉴权失败：401、403
+     */
+    static boolean isAuthFailure(RuntimeException e) {
+        return e instanceof HttpStatusCodeException statusException
+                && (statusException.getStatusCode().value() == 401 || statusException.getStatusCode().value() == 403);
+    }
+
+    /**
+     * 是否可以重试：429、5xx，以及请求尚未发出的连接失败；读超时不重试
+     */
+    static boolean isRetryable(RuntimeException e) {
+        if (e instanceof HttpStatusCodeException) {
+            return isProviderFailure(e);
+        }
+        if (e instanceof ResourceAccessException) {
+            Throwable cause = e.getCause();
+            return cause instanceof ConnectException
+                    || cause instanceof UnknownHostException
+                    || cause instanceof ConnectTimeoutException
+                    || cause instanceof ConnectionRequestTimeoutException;
+        }
+        return false;
+    }
+
+    /**
+     * 全抖动指数退避；服务端返回 Retry-After 时不早于该时间
+     */
+    long backoffDelay(int attempt, RuntimeException e) {
+        long cap = Math.min(zhipuAiConfig.getRetryMaxDelay(),
+                zhipuAiConfig.getRetryBaseDelay() << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+
+        if (e instanceof HttpStatusCodeException statusException && statusException.getResponseHeaders() != null) {
+            String retryAfter = statusException.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            if (retryAfter != null) {
+                try {
+                    long retryAfterMs = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+                    delay = Math.max(delay, Math.min(retryAfterMs, zhipuAiConfig.getRetryMaxDelay()));
+                } catch (NumberFormatException ignored) {
+                    // HTTP日期格式的 Retry-After 按普通退避处理
+                }
+            }
+        }
+        return delay;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("AI请求已中断");
+        }
+    }
+
+    private static Counter callCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("zhipu.ai.calls")
+                .description("智谱AI调用次数")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,105 @@
+package com.ai.love.service;
+
+import com.ai.love.config.ZhipuAiConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 智谱AI健康检查（/actuator/health/ai）
+ * 优先依据真实调用的成功率和耗时判断；窗口内没有调用时可选地发起主动探测，
+ * 探测结果缓存一段时间且同一时刻只有一个探测在进行。
+ * 外部依赖故障不代表本实例故障，因此异常时报告 DEGRADED 而非 DOWN（映射为HTTP 200），
+ * 且不纳入 liveness/readiness 分组，避免模型服务抖动导致实例被重启或摘除
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ZhipuAiHealthIndicator implements HealthIndicator {
+
+    /**
+     * 降级状态，严重程度介于 DOWN 与 UP 之间（见 management.endpoint.health.status.order）
+     */
+    public static final Status DEGRADED = new Status("DEGRADED");
+
+    private final ZhipuAiConfig zhipuAiConfig;
+    private final ZhipuAiCallStats callStats;
+    private final ZhipuAiGuard zhipuAiGuard;
+    private final ZhipuAiClient zhipuAiClient;
+
+    private final AtomicBoolean probeInFlight = new AtomicBoolean(false);
+    private volatile Boolean lastProbeResult;
+    private volatile long lastProbeAt;
+
+    @Override
+    public Health health() {
+        ZhipuAiCallStats.Snapshot stats = callStats.snapshot();
+        ZhipuAiGuard.CircuitState circuitState = zhipuAiGuard.getCircuitState();
+
+        Health.Builder builder;
+        if (circuitState == ZhipuAiGuard.CircuitState.OPEN) {
+            builder = Health.status(DEGRADED).withDetail("reason", "熔断器已打开");
+        } else if (stats.calls() >= zhipuAiConfig.getHealthMinCalls()
+                && stats.successRate() < zhipuAiConfig.getHealthMinSuccessRate()) {
+            builder = Health.status(DEGRADED).withDetail("reason", "近期调用成功率过低");
+        } else if (stats.calls() == 0 && Boolean.TRUE.equals(zhipuAiConfig.getHealthProbeEnabled())) {
+            Boolean probe = probe();
+            builder = Boolean.FALSE.equals(probe)
+                    ? Health.status(DEGRADED).withDetail("reason", "主动探测失败")
+                    : Health.up();
+            if (lastProbeAt > 0) {
+                builder.withDetail("lastProbeAt", Instant.ofEpochMilli(lastProbeAt));
+            }
+        } else {
+            builder = Health.up();
+        }
+
+        builder.withDetail("model", zhipuAiConfig.getModel())
+                .withDetail("circuitState", circuitState)
+                .withDetail("recentCalls", stats.calls())
+                .withDetail("successRate", stats.successRate())
+                .withDetail("avgLatencyMs", stats.avgLatencyMs())
+                .withDetail("maxLatencyMs", stats.maxLatencyMs());
+        if (stats.lastSuccessAt() > 0) {
+            builder.withDetail("lastSuccessAt", Instant.ofEpochMilli(stats.lastSuccessAt()));
+        }
+        if (stats.lastFailureAt() > 0) {
+            builder.withDetail("lastFailureAt", Instant.ofEpochMilli(stats.lastFailureAt()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * AI服务是否可用
+     */
+    public boolean isAvailable() {
+        return Status.UP.equals(health().getStatus());
+    }
+
+    /**
+     * 主动探测：结果在探测间隔内复用，并发请求直接使用上一次结果（尚无结果时返回 null）
+     */
+    private Boolean probe() {
+        if (lastProbeResult != null
+                && System.currentTimeMillis() - lastProbeAt < zhipuAiConfig.getHealthProbeInterval()) {
+            return lastProbeResult;
+        }
+        if (!probeInFlight.compareAndSet(false, true)) {
+            return lastProbeResult;
+        }
+        try {
+            lastProbeResult = zhipuAiClient.checkConnection();
+            lastProbeAt = System.currentTimeMillis();
+            log.debug("智谱AI主动探测完成: {}", lastProbeResult);
+            return lastProbeResult;
+        } finally {
+            probeInFlight.set(false);
+        }
+    }
+}
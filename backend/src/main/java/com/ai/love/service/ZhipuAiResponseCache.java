@@ -0,0 +1,133 @@
+package com.ai.love.service;
+
+import com.ai.love.config.ZhipuAiConfig;
+import com.ai.love.dto.ai.ChatMessage;
+import com.ai.love.dto.ai.ChatResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 智谱AI回复缓存
+ * 以（系统提示词、模型、温度档位、最大令牌数、规范化后的短上下文）为键缓存完整回复，
+ * 命中时不调用模型；高温度或上下文较长的请求不走缓存
+ */
+@Component
+public class ZhipuAiResponseCache {
+
+    private static final String CACHE_NAME = "zhipuAiResponses";
+    private static final String FINISH_REASON_STOP = "stop";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\p{P}\\p{S}~～]+$");
+
+    private final ZhipuAiConfig zhipuAiConfig;
+    private final Cache<String, ChatResponse> cache;
+
+    public ZhipuAiResponseCache(ZhipuAiConfig zhipuAiConfig, MeterRegistry meterRegistry) {
+        this.zhipuAiConfig = zhipuAiConfig;
+        if (Boolean.TRUE.equals(zhipuAiConfig.getResponseCacheEnabled())) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(zhipuAiConfig.getResponseCacheMaxSize())
+                    .expireAfterWrite(Duration.ofMillis(zhipuAiConfig.getResponseCacheTtl()))
+                    .recordStats()
+                    .build();
+            // 命中/未命中计数：/actuator/metrics/cache.gets?tag=cache:zhipuAiResponses
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * 计算缓存键，不可缓存时返回 null
+     */
+    public String keyFor(List<ChatMessage> messages, double temperature, int maxTokens, String systemPrompt) {
+        if (cache == null
+                || temperature > zhipuAiConfig.getResponseCacheMaxTemperature()
+                || messages.isEmpty()
+                || messages.size() > zhipuAiConfig.getResponseCacheMaxContextMessages()) {
+            return null;
+        }
+
+        MessageDigest digest = sha256();
+        update(digest, zhipuAiConfig.getModel());
+        // 温度按0.1分档
+        update(digest, String.valueOf(Math.round(temperature * 10)));
+        update(digest, String.valueOf(maxTokens));
+        update(digest, systemPrompt != null ? systemPrompt.trim() : "");
+        for (ChatMessage message : messages) {
+            update(digest, message.getRole());
+            update(digest, normalize(message.getContent()));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 读取缓存，未命中返回 null
+     * 命中的回复不产生令牌消耗，返回的副本不带 usage，避免重复计入使用量
+     */
+    public ChatResponse get(String key) {
+        ChatResponse cached = key != null ? cache.getIfPresent(key) : null;
+        if (cached == null) {
+            return null;
+        }
+        return new ChatResponse(cached.getId(), cached.getObject(), cached.getCreated(), cached.getModel(),
+                cached.getChoices(), null);
+    }
+
+    /**
+     * 写入缓存，仅缓存正常结束且有内容的回复
+     */
+    public void put(String key, ChatResponse response) {
+        if (key == null || response == null || response.getChoices() == null || response.getChoices().isEmpty()) {
+            return;
+        }
+        ChatResponse.Choice choice = response.getChoices().get(0);
+        if (!FINISH_REASON_STOP.equals(choice.getFinishReason())
+                || choice.getMessage() == null
+                || choice.getMessage().getContent() == null
+                || choice.getMessage().getContent().isBlank()) {
+            return;
+        }
+        cache.put(key, response);
+    }
+
+    /**
+     * 规范化用户输入：去除首尾空白、合并空白、去掉结尾标点、统一小写
+     * “你好！”、“你好~”、“ 你好 ” 视为同一请求
+     */
+    static String normalize(String content) {
+        if (content == null) {
+            return "";
+        }
+        String normalized = WHITESPACE.matcher(content.trim()).replaceAll(" ");
+        String stripped = TRAILING_PUNCTUATION.matcher(normalized).replaceAll("");
+        // 纯标点输入（如“？”）保留原样
+        return (stripped.isEmpty() ? normalized : stripped).toLowerCase(Locale.ROOT);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update((value != null ? value : "").getBytes(StandardCharsets.UTF_8));
+        // 分隔符，避免字段拼接产生歧义
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.ai.love.util;
+
+import java.util.Arrays;
+
+/**
+ * Aho–Corasick 多模式匹配自动机
+ * 按 Unicode 码点匹配（支持中日韩字符和表情符号），忽略变体选择符（U+FE0E/U+FE0F），
+ * 一次扫描即可找出文本中所有模式串的出现位置。构建后不可变，可被多个线程共享。
+ * 边以压缩行存储（每个状态的出边按码点排序后二分查找），适合字符集很大的中文词典
+ */
+public final class AhoCorasickMatcher {
+
+    /**
+     * 匹配回调
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param payload 模式串的附加值（构建时指定）
+         * @param end     匹配结束位置（不含），以 char 下标计
+         */
+        void onMatch(int payload, int end);
+    }
+
+    private final int[] edgeStart;
+    private final int[] edgeCodePoints;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    private final int[] outputStart;
+    private final int[] outputPayloads;
+
+    private AhoCorasickMatcher(int[] edgeStart, int[] edgeCodePoints, int[] edgeTargets, int[] fail,
+                               int[] outputStart, int[] outputPayloads) {
+        this.edgeStart = edgeStart;
+        this.edgeCodePoints = edgeCodePoints;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputStart = outputStart;
+        this.outputPayloads = outputPayloads;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 扫描文本，每个匹配回调一次（重叠匹配均会报告）
+     */
+    public void match(CharSequence text, MatchHandler handler) {
+        int state = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (isVariationSelector(codePoint)) {
+                continue;
+            }
+
+            int next = child(state, codePoint);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = child(state, codePoint);
+            }
+            state = next < 0 ? 0 : next;
+
+            for (int k = outputStart[state]; k < outputStart[state + 1]; k++) {
+                handler.onMatch(outputPayloads[k], i);
+            }
+        }
+    }
+
+    /**
+     * 状态数
+     */
+    public int size() {
+        return fail.length;
+    }
+
+    private int child(int state, int codePoint) {
+        int index = Arrays.binarySearch(edgeCodePoints, edgeStart[state], edgeStart[state + 1], codePoint);
+        return index >= 0 ? edgeTargets[index] : -1;
+    }
+
+    private static boolean isVariationSelector(int codePoint) {
+        return codePoint == 0xFE0E || codePoint == 0xFE0F;
+    }
+
+    /**
+     * 自动机构建器（非线程安全）
+     * 所有状态的出边存在同一张开放寻址哈希表中（键为 状态号<<21 | 码点），不为每个状态单独分配 Map，
+     * 构建时按键排序即得到按状态分组、按码点有序的压缩行
+     */
+    public static final class Builder {
+
+        private static final long EMPTY = -1L;
+        private static final int CODE_POINT_BITS = 21;
+
+        private long[] edgeKeys = newKeyTable(1024);
+        private int[] edgeValues = new int[1024];
+        private int edgeCount;
+        private int stateCount = 1;
+
+        private int[] terminalStates = new int[64];
+        private int[] terminalPayloads = new int[64];
+        private int terminalCount;
+
+        private Builder() {
+        }
+
+        /**
+         * 添加模式串，空串（或只含变体选择符）被忽略
+         */
+        public Builder add(CharSequence pattern, int payload) {
+            int state = 0;
+            boolean empty = true;
+            int i = 0;
+            while (i < pattern.length()) {
+                int codePoint = Character.codePointAt(pattern, i);
+                i += Character.charCount(codePoint);
+                if (isVariationSelector(codePoint)) {
+                    continue;
+                }
+                empty = false;
+                state = childOrCreate(state, codePoint);
+            }
+            if (!empty) {
+                if (terminalCount == terminalStates.length) {
+                    terminalStates = Arrays.copyOf(terminalStates, terminalCount * 2);
+                    terminalPayloads = Arrays.copyOf(terminalPayloads, terminalCount * 2);
+                }
+                terminalStates[terminalCount] = state;
+                terminalPayloads[terminalCount] = payload;
+                terminalCount++;
+            }
+            return this;
+        }
+
+        public AhoCorasickMatcher build() {
+            // 出边按 (状态, 码点) 排序存成压缩行
+            long[] keys = new long[edgeCount];
+            int n = 0;
+            for (long key : edgeKeys) {
+                if (key != EMPTY) {
+                    keys[n++] = key;
+                }
+            }
+            Arrays.sort(keys);
+            int[] edgeStart = new int[stateCount + 1];
+            int[] edgeCodePoints = new int[edgeCount];
+            int[] edgeTargets = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                edgeStart[(int) (keys[e] >>> CODE_POINT_BITS) + 1]++;
+                edgeCodePoints[e] = (int) (keys[e] & ((1L << CODE_POINT_BITS) - 1));
+                edgeTargets[e] = edgeValues[slot(keys[e])];
+            }
+            for (int s = 0; s < stateCount; s++) {
+                edgeStart[s + 1] += edgeStart[s];
+            }
+
+            // 各状态自身的输出（同一状态内保持添加顺序）
+            int[] ownStart = new int[stateCount + 1];
+            for (int t = 0; t < terminalCount; t++) {
+                ownStart[terminalStates[t] + 1]++;
+            }
+            for (int s = 0; s < stateCount; s++) {
+                ownStart[s + 1] += ownStart[s];
+            }
+            int[] ownPayloads = new int[terminalCount];
+            int[] fill = Arrays.copyOf(ownStart, stateCount);
+            for (int t = 0; t < terminalCount; t++) {
+                ownPayloads[fill[terminalStates[t]]++] = terminalPayloads[t];
+            }
+
+            // 广度优先计算失败指针；失败状态深度更小，按同一顺序合并输出时其输出已就绪
+            int[] fail = new int[stateCount];
+            int[] order = new int[stateCount];
+            AhoCorasickMatcher partial = new AhoCorasickMatcher(edgeStart, edgeCodePoints, edgeTargets, fail,
+                    new int[stateCount + 1], new int[0]);
+            int head = 0;
+            int tail = 0;
+            for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+                order[tail++] = edgeTargets[e];
+            }
+            while (head < tail) {
+                int state = order[head++];
+                for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                    int codePoint = edgeCodePoints[e];
+                    int target = edgeTargets[e];
+                    int f = fail[state];
+                    int next = partial.child(f, codePoint);
+                    while (next < 0 && f != 0) {
+                        f = fail[f];
+                        next = partial.child(f, codePoint);
+                    }
+                    fail[target] = next < 0 || next == target ? 0 : next;
+                    order[tail++] = target;
+                }
+            }
+
+            int[] outputCount = new int[stateCount];
+            for (int k = 0; k < tail; k++) {
+                int state = order[k];
+                outputCount[state] = ownStart[state + 1] - ownStart[state] + outputCount[fail[state]];
+            }
+            int[] outputStart = new int[stateCount + 1];
+            for (int s = 0; s < stateCount; s++) {
+                outputStart[s + 1] = outputStart[s] + outputCount[s];
+            }
+            int[] outputPayloads = new int[outputStart[stateCount]];
+            for (int k = 0; k < tail; k++) {
+                int state = order[k];
+                int own = ownStart[state + 1] - ownStart[state];
+                System.arraycopy(ownPayloads, ownStart[state], outputPayloads, outputStart[state], own);
+                System.arraycopy(outputPayloads, outputStart[fail[state]], outputPayloads, outputStart[state] + own,
+                        outputCount[fail[state]]);
+            }
+
+            return new AhoCorasickMatcher(edgeStart, edgeCodePoints, edgeTargets, fail, outputStart, outputPayloads);
+        }
+
+        private int childOrCreate(int state, int codePoint) {
+            long key = ((long) state << CODE_POINT_BITS) | codePoint;
+            int slot = slot(key);
+            if (edgeKeys[slot] == key) {
+                return edgeValues[slot];
+            }
+            int child = stateCount++;
+            edgeKeys[slot] = key;
+            edgeValues[slot] = child;
+            if (++edgeCount * 2 > edgeKeys.length) {
+                resize();
+            }
+            return child;
+        }
+
+        /**
+         * 键所在槽位，键不存在时为应插入的空槽（线性探测）
+         */
+        private int slot(long key) {
+            int mask = edgeKeys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (edgeKeys[slot] != EMPTY && edgeKeys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            long[] oldKeys = edgeKeys;
+            int[] oldValues = edgeValues;
+            edgeKeys = newKeyTable(oldKeys.length * 2);
+            edgeValues = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i]);
+                    edgeKeys[slot] = oldKeys[i];
+                    edgeValues[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static long[] newKeyTable(int capacity) {
+            long[] table = new long[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+    }
+}
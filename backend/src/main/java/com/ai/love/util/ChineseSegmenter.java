@@ -0,0 +1,117 @@
+package com.ai.love.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 基于词典的中文分词器（正向最大匹配）
+ * 词典编译为 Aho–Corasick 自动机，一次扫描得到每个位置起始的最长词，再按最长词贪心切分；
+ * 连续的未登录汉字切为重叠的二元组（单个未登录汉字保持单字），其他未登录字符切为单字，
+ * 连续的英文字母数字切为一个词，空白和标点丢弃。构建后不可变，可被多个线程共享
+ */
+public final class ChineseSegmenter {
+
+    private final AhoCorasickMatcher matcher;
+    private final int[] lengths;
+
+    private ChineseSegmenter(AhoCorasickMatcher matcher, int[] lengths) {
+        this.matcher = matcher;
+        this.lengths = lengths;
+    }
+
+    /**
+     * 由词表构建分词器，词条应已转为小写
+     */
+    public static ChineseSegmenter of(Collection<String> words) {
+        AhoCorasickMatcher.Builder builder = AhoCorasickMatcher.builder();
+        int[] lengths = new int[words.size()];
+        int index = 0;
+        for (String word : words) {
+            builder.add(word, index);
+            lengths[index++] = word.length();
+        }
+        return new ChineseSegmenter(builder.build(), lengths);
+    }
+
+    /**
+     * 切分文本（调用方负责转小写）
+     */
+    public List<String> segment(String text) {
+        int length = text.length();
+        int[] longest = new int[length];
+        matcher.match(text, (word, end) -> {
+            int start = end - lengths[word];
+            if (start >= 0 && lengths[word] > longest[start] && !splitsAsciiWord(text, start, end)) {
+                longest[start] = lengths[word];
+            }
+        });
+
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < length) {
+            if (longest[i] > 0) {
+                tokens.add(text.substring(i, i + longest[i]));
+                i += longest[i];
+                continue;
+            }
+
+            int codePoint = text.codePointAt(i);
+            if (isAsciiLetterOrDigit(codePoint)) {
+                int end = i + 1;
+                while (end < length && isAsciiLetterOrDigit(text.charAt(end))) {
+                    end++;
+                }
+                tokens.add(text.substring(i, end));
+                i = end;
+            } else if (Character.isIdeographic(codePoint)) {
+                i = addBigrams(text, i, longest, tokens);
+            } else {
+                int width = Character.charCount(codePoint);
+                if (Character.isLetterOrDigit(codePoint)) {
+                    tokens.add(text.substring(i, i + width));
+                }
+                i += width;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 从 start 起的一段连续未登录汉字切为重叠二元组，返回该段结束位置
+     */
+    private static int addBigrams(String text, int start, int[] longest, List<String> tokens) {
+        int first = start;
+        int second = first + Character.charCount(text.codePointAt(first));
+        if (!isUnknownIdeograph(text, second, longest)) {
+            tokens.add(text.substring(first, second));
+            return second;
+        }
+        while (isUnknownIdeograph(text, second, longest)) {
+            int end = second + Character.charCount(text.codePointAt(second));
+            tokens.add(text.substring(first, end));
+            first = second;
+            second = end;
+        }
+        return second;
+    }
+
+    private static boolean isUnknownIdeograph(String text, int index, int[] longest) {
+        return index < text.length() && longest[index] == 0 && Character.isIdeographic(text.codePointAt(index));
+    }
+
+    /**
+     * 词典中的英文词只能整词匹配，不能切开一个连续的字母数字串
+     */
+    private static boolean splitsAsciiWord(String text, int start, int end) {
+        boolean splitsStart = start > 0 && isAsciiLetterOrDigit(text.charAt(start - 1))
+                && isAsciiLetterOrDigit(text.charAt(start));
+        boolean splitsEnd = end < text.length() && isAsciiLetterOrDigit(text.charAt(end - 1))
+                && isAsciiLetterOrDigit(text.charAt(end));
+        return splitsStart || splitsEnd;
+    }
+
+    private static boolean isAsciiLetterOrDigit(int codePoint) {
+        return codePoint < 0x80 && Character.isLetterOrDigit(codePoint);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ai.love.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按ID合并的内存计数器
+ * 每个ID对应一个分段累加的 LongAdder，热点ID的高并发累加互不阻塞；
+ * 定时取出增量后批量写库，把每次请求一条 UPDATE 合并为每个周期每个ID一条
+ */
+public class CoalescingCounter {
+
+    private final ConcurrentHashMap<Long, LongAdder> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 累加
+     */
+    public void add(Long id, long delta) {
+        if (id == null || delta == 0) {
+            return;
+        }
+        LongAdder adder = counters.computeIfAbsent(id, key -> new LongAdder());
+        adder.add(delta);
+        // 若累加期间该计数器被 drain 移除，收回可能遗漏的增量
+        if (counters.get(id) != adder) {
+            long orphan = adder.sumThenReset();
+            if (orphan != 0) {
+                counters.computeIfAbsent(id, key -> new LongAdder()).add(orphan);
+            }
+        }
+    }
+
+    /**
+     * 取出并清零所有非零增量；本周期无变化的ID会被移除
+     */
+    public Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : counters.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                deltas.merge(entry.getKey(), delta, Long::sum);
+            } else if (counters.remove(entry.getKey(), entry.getValue())) {
+                // 移除后再收一次，覆盖移除前瞬间的并发累加
+                long late = entry.getValue().sumThenReset();
+                if (late != 0) {
+                    deltas.merge(entry.getKey(), late, Long::sum);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * 写库失败时放回增量，下个周期重试
+     */
+    public void restore(Map<Long, Long> deltas) {
+        deltas.forEach(this::add);
+    }
+
+    /**
+     * 当前待写入的ID数
+     */
+    public int size() {
+        return counters.size();
+    }
+}
@@ -1,31 +1,88 @@
 package com.ai.love.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * JWT工具类
+ * 签名密钥与解析器只创建一次；验证通过的令牌按 SHA-256 摘要缓存其声明，缓存项不会晚于令牌过期时间失效。
+ * 验签开销主要在载荷的 JSON 解析上，摘要加缓存命中比完整验签解析快一个数量级（见 JwtUtilBenchmark）
  */
 @Slf4j
 @Component
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    /**
+     * 默认角色
+     */
+    public static final String DEFAULT_ROLE = "ROLE_USER";
 
-    @Value("${app.jwt.expiration}")
-    private Long expiration;
+    private static final String CACHE_NAME = "jwtClaims";
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, TokenClaims> verifiedTokens;
+
+    public JwtUtil(@Value("${app.jwt.secret}") String secret,
+                   @Value("${app.jwt.expiration}") Long expiration,
+                   @Value("${app.jwt.claims-cache-max-size:10000}") long claimsCacheMaxSize,
+                   MeterRegistry meterRegistry) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, TokenClaims claims, long currentTime) {
+                        return claims.remaining(Instant.now()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TokenClaims claims, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TokenClaims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, CACHE_NAME);
     }
 
     /**
@@ -35,6 +92,7 @@ public class JwtUtil {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("username", username);
+        claims.put("roles", List.of(DEFAULT_ROLE));
         return createToken(claims, username);
     }
 
@@ -47,53 +105,61 @@ public class JwtUtil {
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * 验证并解析令牌，结果不可变；同一令牌在缓存有效期内只验签一次
+     * 令牌无效或已过期时抛出 {@link JwtException} 或 {@link IllegalArgumentException}
+     */
+    public TokenClaims parseToken(String token) {
+        String key = digest(token);
+        TokenClaims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (cached.isExpired(Instant.now())) {
+                verifiedTokens.invalidate(key);
+            } else {
+                return cached;
+            }
+        }
+
+        TokenClaims claims = TokenClaims.of(getAllClaimsFromToken(token));
+        verifiedTokens.put(key, claims);
+        return claims;
+    }
+
     /**
      * 从令牌中获取用户名
      */
     public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return parseToken(token).username();
     }
 
     /**
      * 从令牌中获取用户ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = getAllClaimsFromToken(token);
-        return claims.get("userId", Long.class);
+        return parseToken(token).userId();
     }
 
     /**
      * 从令牌中获取过期时间
      */
     public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
-    }
-
-    /**
-     * 从令牌中获取指定声明
-     */
-    public <T> T getClaimFromToken(String token, java.util.function.Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+        return Date.from(parseToken(token).expiration());
     }
 
     /**
-     * 从令牌中获取所有声明
+     * 从令牌中获取所有声明（验签并解析，不经过缓存）
      */
     private Claims getAllClaimsFromToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             log.warn("JWT令牌已过期: {}", e.getMessage());
             throw e;
@@ -117,8 +183,7 @@ public class JwtUtil {
      */
     public Boolean isTokenExpired(String token) {
         try {
-            final Date expiration = getExpirationDateFromToken(token);
-            return expiration.before(new Date());
+            return parseToken(token).isExpired(Instant.now());
         } catch (ExpiredJwtException e) {
             return true;
         }
@@ -129,26 +194,54 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token, String username) {
         try {
-            final String tokenUsername = getUsernameFromToken(token);
-            return (username.equals(tokenUsername) && !isTokenExpired(token));
+            TokenClaims claims = parseToken(token);
+            return username.equals(claims.username()) && !claims.isExpired(Instant.now());
         } catch (Exception e) {
             log.warn("JWT令牌验证失败: {}", e.getMessage());
             return false;
         }
     }
 
+    private static String digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
     /**
-     * 刷新令牌
+     * 已验证令牌的声明（不可变）
+     *
+     * @param jti   令牌ID，用于吊销；旧令牌没有该声明时为 null
+     * @param roles 角色，旧令牌没有该声明时为默认角色
      */
-    public String refreshToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            String username = claims.getSubject();
-            Long userId = claims.get("userId", Long.class);
-            return generateToken(username, userId);
-        } catch (Exception e) {
-            log.warn("刷新JWT令牌失败: {}", e.getMessage());
-            throw new RuntimeException("无法刷新令牌", e);
+    public record TokenClaims(String jti, Long userId, String username, List<String> roles, Instant issuedAt,
+                              Instant expiration) {
+
+        private static TokenClaims of(Claims claims) {
+            List<?> roles = claims.get("roles", List.class);
+            return new TokenClaims(
+                    claims.getId(),
+                    claims.get("userId", Long.class),
+                    claims.getSubject(),
+                    roles == null || roles.isEmpty()
+                            ? List.of(DEFAULT_ROLE)
+                            : roles.stream().map(String::valueOf).toList(),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : Instant.MAX);
+        }
+
+        public boolean isExpired(Instant now) {
+            return !expiration.isAfter(now);
+        }
+
+        /**
+         * 距过期的剩余时间，作为缓存项的存活时间；没有过期时间的令牌最多缓存一天
+         */
+        private Duration remaining(Instant now) {
+            if (expiration.equals(Instant.MAX)) {
+                return Duration.ofDays(1);
+            }
+            Duration remaining = Duration.between(now, expiration);
+            return remaining.isNegative() ? Duration.ZERO : remaining;
         }
     }
 }
@@ -0,0 +1,165 @@
+package com.ai.love.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 高频项统计
+ * 最多保留 capacity 个计数器，新项在计数器已满时替换计数最小的一项并继承其计数（记为误差上界），
+ * 内存与历史数据量无关；计数 ≥ 总数/capacity 的项一定在表中。非线程安全
+ */
+public final class SpaceSavingSketch {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 记录一次出现
+     */
+    public void offer(String item) {
+        offer(item, 1);
+    }
+
+    public void offer(String item, long count) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += count;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(item, count, 0));
+            return;
+        }
+
+        Counter min = null;
+        for (Counter candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.item);
+        counters.put(item, new Counter(item, min.count + count, min.count));
+    }
+
+    /**
+     * 计数最高的 n 项（计数为估计上界，同计数按字典序）
+     */
+    public List<Entry> top(int n) {
+        return counters.values().stream()
+                .sorted(Comparator.comparingLong((Counter c) -> c.count).reversed()
+                        .thenComparing(c -> c.item))
+                .limit(n)
+                .map(c -> new Entry(c.item, c.count, c.error))
+                .toList();
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * 序列化为紧凑的二进制格式（计数使用变长整数）
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + counters.size() * 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeVarLong(out, capacity);
+            writeVarLong(out, counters.size());
+            for (Counter counter : counters.values()) {
+                out.writeUTF(counter.item);
+                writeVarLong(out, counter.count);
+                writeVarLong(out, counter.error);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 反序列化；capacity 变小时只保留计数最高的项
+     */
+    public static SpaceSavingSketch fromBytes(byte[] data, int capacity) {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("unsupported sketch format: " + version);
+            }
+            readVarLong(in);
+            long size = readVarLong(in);
+            List<Counter> loaded = new ArrayList<>((int) Math.min(size, 1 << 16));
+            for (long i = 0; i < size; i++) {
+                loaded.add(new Counter(in.readUTF(), readVarLong(in), readVarLong(in)));
+            }
+            loaded.sort(Comparator.comparingLong((Counter c) -> c.count).reversed());
+            for (Counter counter : loaded.subList(0, Math.min(capacity, loaded.size()))) {
+                sketch.counters.put(counter.item, counter);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("corrupted sketch", e);
+        }
+        return sketch;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private static final class Counter {
+        private final String item;
+        private long count;
+        private final long error;
+
+        private Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 高频项
+     *
+     * @param count 估计计数（上界）
+     * @param error 估计误差上界，真实计数不小于 count - error
+     */
+    public record Entry(String item, long count, long error) {
+    }
+}
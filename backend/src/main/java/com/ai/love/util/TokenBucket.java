@@ -0,0 +1,50 @@
+package com.ai.love.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 令牌桶
+ * 以"理论到达时间"（GCRA）表示桶状态：容量 capacity，每 refillPeriod 补满一桶。
+ * 状态只有一个 AtomicLong，取令牌是一次读和一次 CAS，无锁、无后台补充线程
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * 创建一个满桶
+     *
+     * @param nowNanos 当前 {@link System#nanoTime()}
+     */
+    public TokenBucket(int capacity, Duration refillPeriod, long nowNanos) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 尝试取一个令牌
+     *
+     * @param nowNanos 当前 {@link System#nanoTime()}
+     * @return 0 表示成功；否则为下一个令牌可用前还需等待的纳秒数
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
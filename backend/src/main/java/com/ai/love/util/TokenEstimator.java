@@ -0,0 +1,110 @@
+package com.ai.love.util;
+
+import com.ai.love.dto.ai.ChatMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 令牌数估算器
+ * 不调用模型、不分配对象，单次遍历字符按类别估算：
+ * 中日韩字符每字约1令牌，英文单词约每4个字母1令牌，数字约每3位1令牌，标点符号各1令牌，空白并入相邻令牌。
+ * 估算值略偏高，用于预算时宁可少放历史也不超出上下文窗口
+ */
+@Component
+public class TokenEstimator {
+
+    /**
+     * 每条消息的格式开销（角色标记等）
+     */
+    public static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    /**
+     * 回复起始标记开销
+     */
+    private static final int REPLY_PRIMING_TOKENS = 3;
+
+    private static final int LETTERS_PER_TOKEN = 4;
+    private static final int DIGITS_PER_TOKEN = 3;
+
+    /**
+     * 估算文本令牌数
+     */
+    public int estimate(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int length = text.length();
+        int tokens = 0;
+        int letterRun = 0;
+        int digitRun = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            if (c < 0x80) {
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                    tokens += closeRun(digitRun, DIGITS_PER_TOKEN);
+                    digitRun = 0;
+                    letterRun++;
+                    continue;
+                }
+                if (c >= '0' && c <= '9') {
+                    tokens += closeRun(letterRun, LETTERS_PER_TOKEN);
+                    letterRun = 0;
+                    digitRun++;
+                    continue;
+                }
+                tokens += closeRun(letterRun, LETTERS_PER_TOKEN) + closeRun(digitRun, DIGITS_PER_TOKEN);
+                letterRun = 0;
+                digitRun = 0;
+                // 空白和控制字符并入相邻令牌，其余ASCII标点各算1个
+                if (c > ' ' && c != 0x7F) {
+                    tokens++;
+                }
+                continue;
+            }
+
+            tokens += closeRun(letterRun, LETTERS_PER_TOKEN) + closeRun(digitRun, DIGITS_PER_TOKEN);
+            letterRun = 0;
+            digitRun = 0;
+
+            if (Character.isHighSurrogate(c)) {
+                // 增补平面字符（表情符号、扩展汉字等）通常被拆成多个字节级令牌
+                tokens += 2;
+                if (i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    i++;
+                }
+            } else if (!Character.isWhitespace(c)) {
+                // 中日韩字符、全角标点及其他非ASCII字符
+                tokens++;
+            }
+        }
+        return tokens + closeRun(letterRun, LETTERS_PER_TOKEN) + closeRun(digitRun, DIGITS_PER_TOKEN);
+    }
+
+    /**
+     * 估算单条消息令牌数（含格式开销）
+     */
+    public int estimateMessage(CharSequence content) {
+        return estimate(content) + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    /**
+     * 估算整段提示词令牌数（系统提示词 + 消息列表 + 回复起始标记）
+     */
+    public int estimatePrompt(String systemPrompt, List<ChatMessage> messages) {
+        int tokens = REPLY_PRIMING_TOKENS;
+        if (systemPrompt != null && !systemPrompt.isEmpty()) {
+            tokens += estimateMessage(systemPrompt);
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            tokens += estimateMessage(messages.get(i).getContent());
+        }
+        return tokens;
+    }
+
+    private static int closeRun(int run, int perToken) {
+        return run == 0 ? 0 : (run + perToken - 1) / perToken;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ai.love.security;
+
+import com.ai.love.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void encodesAndMatches() {
+        PasswordHasher hasher = hasher(new BCryptPasswordEncoder(4), 1, 5_000);
+
+        String hash = hasher.encode("secret");
+
+        assertThat(hasher.matches("secret", hash)).isTrue();
+        assertThat(hasher.matches("wrong", hash)).isFalse();
+        assertThat(hasher.matches("secret", null)).isFalse();
+    }
+
+    @Test
+    void waitingTooLongFailsWith503() {
+        PasswordHasher hasher = hasher(blockingEncoder(), 1, 100);
+
+        assertThatThrownBy(() -> hasher.encode("secret"))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getCode()).isEqualTo(503));
+    }
+
+    @Test
+    void fullQueueFailsWith429() throws Exception {
+        PasswordHasher hasher = hasher(blockingEncoder(), 1, 100);
+        // 占满唯一的线程和排队位置
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        assertThatThrownBy(() -> hasher.encode("secret"))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getCode()).isEqualTo(429));
+    }
+
+    private PasswordHasher hasher(PasswordEncoder encoder, int queueCapacity, long waitTimeoutMs) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return new PasswordHasher(encoder, executor, 4, waitTimeoutMs, new SimpleMeterRegistry());
+    }
+
+    /**
+     * 构造时的哑哈希直接返回，之后的计算阻塞到测试结束
+     */
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            private boolean dummyEncoded;
+
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if (!dummyEncoded) {
+                    dummyEncoded = true;
+                    return "dummy";
+                }
+                awaitRelease();
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                awaitRelease();
+                return false;
+            }
+        };
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ai.love.service;
+
+import com.ai.love.entity.EmotionAnalysis;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmotionLexiconTest {
+
+    private static final String LEXICON = "\uFEFF# 词条\t情感类型\t权重\t标记\r\n"
+            + "开心\tJOY\t1.0\r\n"
+            + "难过\tSADNESS\t2\n"
+            + "\n"
+            + "不\t-\t1\tnegator\n"
+            + "开心\tJOY\t3";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void memoryMappedAndStreamedLoadsAgree() throws Exception {
+        Path file = dir.resolve("lexicon.tsv");
+        Files.writeString(file, LEXICON, StandardCharsets.UTF_8);
+
+        EmotionLexicon mapped = EmotionLexicon.load(new FileSystemResource(file), true);
+        EmotionLexicon streamed = EmotionLexicon.load(new FileSystemResource(file), false);
+
+        assertThat(mapped.size()).isEqualTo(3);
+        assertThat(mapped.score("今天很开心也有点难过", 1)).containsExactly(streamed.score("今天很开心也有点难过", 1));
+        double[] scores = mapped.score("今天很开心也有点难过", 1);
+        assertThat(scores[EmotionAnalysis.EmotionType.JOY.ordinal()]).isEqualTo(3.0);
+        assertThat(scores[EmotionAnalysis.EmotionType.SADNESS.ordinal()]).isEqualTo(2.0);
+        assertThat(mapped.score("不开心", 1)[EmotionAnalysis.EmotionType.JOY.ordinal()]).isZero();
+    }
+
+    @Test
+    void reportsLineOfInvalidUtf8() {
+        byte[] bytes = {'a', '\t', 'J', 'O', 'Y', '\n', (byte) 0xE5, (byte) 0xBC, '\t', 'J', 'O', 'Y', '\n'};
+
+        assertThatThrownBy(() -> EmotionLexicon.load(new ByteArrayResource(bytes), false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("第2行");
+    }
+}
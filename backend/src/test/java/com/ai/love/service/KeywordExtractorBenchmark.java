@@ -0,0 +1,61 @@
+package com.ai.love.service;
+
+import com.ai.love.config.EmotionAnalysisConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 关键词提取基准：内置词典下对一条聊天消息分词并打分，结果为每秒处理的字符数
+ * 运行：mvn test-compile 后以测试类路径执行 main 方法（或 org.openjdk.jmh.Main KeywordExtractorBenchmark）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordExtractorBenchmark {
+
+    private static final int MESSAGE_CHARS = 88;
+
+    /**
+     * 词典词与未登录词混合的消息（MESSAGE_CHARS 个字符）
+     */
+    private static final String MESSAGE = "今天加班到很晚，回家路上看到一只流浪猫，想起我们以前一起养的猫咪。"
+            + "周末想去看电影放松一下，最近量子力学的纪录片好像不错，你有没有推荐的？really need a break.";
+
+    private KeywordExtractor extractor;
+
+    @Setup
+    public void setUp() {
+        if (MESSAGE.length() != MESSAGE_CHARS) {
+            throw new IllegalStateException("MESSAGE_CHARS must equal MESSAGE.length(): " + MESSAGE.length());
+        }
+        extractor = new KeywordExtractor(new EmotionAnalysisConfig(), new DefaultResourceLoader());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGE_CHARS)
+    public String extract() {
+        return extractor.extract(MESSAGE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(KeywordExtractorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,50 @@
+package com.ai.love.service;
+
+import com.ai.love.config.EmotionAnalysisConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordExtractorTest {
+
+    private final KeywordExtractor extractor = new KeywordExtractor(new EmotionAnalysisConfig(), new DefaultResourceLoader());
+
+    private List<String> extract(String content) {
+        String keywords = extractor.extract(content);
+        return keywords.isEmpty() ? List.of() : List.of(keywords.split(","));
+    }
+
+    @Test
+    void extractsBigramsFromUnknownChineseText() {
+        List<String> keywords = extract("量子纠缠");
+
+        assertThat(keywords).isNotEmpty().contains("量子", "纠缠");
+    }
+
+    @Test
+    void dropsBigramsContainingSingleCharacterStopwords() {
+        List<String> keywords = extract("量子的纠缠了");
+
+        assertThat(keywords).contains("量子", "纠缠").doesNotContain("子的", "的纠", "缠了");
+    }
+
+    @Test
+    void ranksDictionaryWordsAboveUnknownBigrams() {
+        List<String> keywords = extract("加班加班，量子纠缠");
+
+        assertThat(keywords.get(0)).isEqualTo("加班");
+    }
+
+    @Test
+    void keepsEnglishWordsAndDropsStopwords() {
+        assertThat(extract("amazing and really nice")).contains("amazing", "nice").doesNotContain("and", "really");
+    }
+
+    @Test
+    void emptyInputYieldsNoKeywords() {
+        assertThat(extractor.extract("")).isEmpty();
+    }
+}
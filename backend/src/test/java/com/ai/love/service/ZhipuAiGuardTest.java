@@ -0,0 +1,328 @@
+package com.ai.love.service;
+
+import com.ai.love.config.ZhipuAiConfig;
+import com.ai.love.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ZhipuAiGuardTest {
+
+    private ZhipuAiConfig config;
+    private MutableClock clock;
+    private ZhipuAiCallStats callStats;
+    private ZhipuAiGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        config = new ZhipuAiConfig();
+        config.setRetryCount(0);
+        config.setRetryBaseDelay(1L);
+        config.setRetryMaxDelay(1L);
+        config.setCircuitFailureThreshold(3);
+        config.setCircuitOpenDuration(30_000L);
+        config.setMaxConcurrentCalls(4);
+        config.setBulkheadWaitTimeout(0L);
+        clock = new MutableClock();
+        guard = newGuard();
+    }
+
+    private ZhipuAiGuard newGuard() {
+        callStats = new ZhipuAiCallStats(config);
+        return new ZhipuAiGuard(config, callStats, new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndShortCircuits() {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<String> failing = () -> {
+            calls.incrementAndGet();
+            throw serverError(HttpStatus.INTERNAL_SERVER_ERROR, null);
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> execute(failing)).isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.OPEN);
+
+        assertThatThrownBy(() -> execute(failing))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getCode()).isEqualTo(503));
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void halfOpenProbeSuccessClosesCircuit() {
+        openCircuit();
+
+        clock.advance(29_999);
+        assertThatThrownBy(() -> execute(() -> "ok")).isInstanceOf(BusinessException.class);
+
+        clock.advance(1);
+        assertThat(execute(() -> "ok")).isEqualTo("ok");
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.CLOSED);
+    }
+
+    @Test
+    void halfOpenProbeFailureReopensCircuit() {
+        openCircuit();
+        clock.advance(30_000);
+
+        assertThatThrownBy(() -> execute(() -> {
+            throw serverError(HttpStatus.BAD_GATEWAY, null);
+        })).isInstanceOf(HttpServerErrorException.class);
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.OPEN);
+
+        // 重新打开后冷却期从这次失败开始计算
+        assertThatThrownBy(() -> execute(() -> "ok")).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void clientErrorsDoNotTripCircuit() {
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> execute(() -> {
+                throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "bad", null, null, null);
+            })).isInstanceOf(HttpClientErrorException.class);
+        }
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.CLOSED);
+    }
+
+    @Test
+    void authFailuresCountAgainstHealthButNotCircuit() {
+        config.setRetryCount(3);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> execute(() -> {
+                calls.incrementAndGet();
+                throw HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "unauthorized", null, null, null);
+            })).isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(calls).hasValue(5);
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.CLOSED);
+        assertThat(callStats.snapshot().calls()).isEqualTo(5);
+        assertThat(callStats.snapshot().successRate()).isZero();
+    }
+
+    @Test
+    void authFailureDuringHalfOpenReturnsToOpen() {
+        openCircuit();
+        clock.advance(30_000);
+
+        assertThatThrownBy(() -> execute(() -> {
+            throw HttpClientErrorException.create(HttpStatus.FORBIDDEN, "forbidden", null, null, null);
+        })).isInstanceOf(HttpClientErrorException.class);
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.OPEN);
+    }
+
+    @Test
+    void errorDuringHalfOpenReopensCircuit() {
+        openCircuit();
+        clock.advance(30_000);
+
+        assertThatThrownBy(() -> execute(() -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.OPEN);
+
+        // 冷却期结束后仍能再次试探
+        clock.advance(30_000);
+        assertThat(execute(() -> "ok")).isEqualTo("ok");
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.CLOSED);
+    }
+
+    @Test
+    void retriesServerErrorThenSucceeds() {
+        config.setRetryCount(2);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw serverError(HttpStatus.SERVICE_UNAVAILABLE, null);
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void readTimeoutIsNotRetried() {
+        config.setRetryCount(3);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> execute(() -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("read timed out", new SocketTimeoutException("Read timed out"));
+        })).isInstanceOf(ResourceAccessException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void connectFailureIsRetried() {
+        config.setRetryCount(2);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> execute(() -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("refused", new ConnectException("Connection refused"));
+        })).isInstanceOf(ResourceAccessException.class);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void retryStopsWhenBudgetWouldBeExceeded() {
+        config.setRetryCount(3);
+        config.setTimeout(60_000L);
+        config.setRetryBudget(59_999L);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> execute(() -> {
+            calls.incrementAndGet();
+            throw serverError(HttpStatus.SERVICE_UNAVAILABLE, null);
+        })).isInstanceOf(HttpServerErrorException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void callerCanForbidRetry() {
+        config.setRetryCount(3);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> guard.execute("test", () -> {
+            calls.incrementAndGet();
+            throw serverError(HttpStatus.SERVICE_UNAVAILABLE, null);
+        }, () -> false)).isInstanceOf(HttpServerErrorException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void bulkheadRejectsWhenAllPermitsAreHeld() throws Exception {
+        config.setMaxConcurrentCalls(1);
+        guard = newGuard();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> execute(() -> {
+            entered.countDown();
+            await(release);
+            return "held";
+        }));
+        holder.start();
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> execute(() -> "second"))
+                    .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getCode()).isEqualTo(503));
+        } finally {
+            release.countDown();
+            holder.join(5_000);
+        }
+        assertThat(execute(() -> "after")).isEqualTo("after");
+    }
+
+    @Test
+    void retryAfterHeaderRaisesBackoffUpToMaxDelay() {
+        config.setRetryMaxDelay(8_000L);
+
+        assertThat(guard.backoffDelay(1, serverError(HttpStatus.TOO_MANY_REQUESTS, "2"))).isEqualTo(2_000L);
+        assertThat(guard.backoffDelay(1, serverError(HttpStatus.TOO_MANY_REQUESTS, "100"))).isEqualTo(8_000L);
+        assertThat(guard.backoffDelay(1, serverError(HttpStatus.TOO_MANY_REQUESTS, "Wed, 21 Oct 2015 07:28:00 GMT")))
+                .isBetween(0L, 1L);
+    }
+
+    @Test
+    void backoffGrowsExponentiallyWithinCap() {
+        config.setRetryBaseDelay(100L);
+        config.setRetryMaxDelay(1_000L);
+        RuntimeException failure = serverError(HttpStatus.SERVICE_UNAVAILABLE, null);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(guard.backoffDelay(1, failure)).isBetween(0L, 100L);
+            assertThat(guard.backoffDelay(3, failure)).isBetween(0L, 400L);
+            assertThat(guard.backoffDelay(10, failure)).isBetween(0L, 1_000L);
+        }
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < config.getCircuitFailureThreshold(); i++) {
+            assertThatThrownBy(() -> execute(() -> {
+                throw serverError(HttpStatus.SERVICE_UNAVAILABLE, null);
+            })).isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThat(guard.getCircuitState()).isEqualTo(ZhipuAiGuard.CircuitState.OPEN);
+    }
+
+    private <T> T execute(Supplier<T> call) {
+        return guard.execute("test", call, () -> true);
+    }
+
+    private static HttpServerErrorException serverError(HttpStatus status, String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        if (status.is4xxClientError()) {
+            // 429 不是 5xx，用同样的方式构造以便统一处理
+            return new HttpServerErrorException(status, status.getReasonPhrase(), headers, null, null);
+        }
+        return (HttpServerErrorException) HttpServerErrorException.create(status, status.getReasonPhrase(), headers, null, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private long millis = 1_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ai.love.service;
+
+import com.ai.love.config.ZhipuAiConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ZhipuAiHealthIndicatorTest {
+
+    private ZhipuAiConfig config;
+    private ZhipuAiCallStats callStats;
+    private ZhipuAiGuard guard;
+    private ZhipuAiHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        config = new ZhipuAiConfig();
+        config.setHealthMinCalls(4);
+        config.setHealthMinSuccessRate(0.5);
+        callStats = new ZhipuAiCallStats(config);
+        guard = mock(ZhipuAiGuard.class);
+        when(guard.getCircuitState()).thenReturn(ZhipuAiGuard.CircuitState.CLOSED);
+        indicator = new ZhipuAiHealthIndicator(config, callStats, guard, mock(ZhipuAiClient.class));
+    }
+
+    @Test
+    void upWithoutRecentCalls() {
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(indicator.isAvailable()).isTrue();
+    }
+
+    @Test
+    void openCircuitIsDegradedNotDown() {
+        when(guard.getCircuitState()).thenReturn(ZhipuAiGuard.CircuitState.OPEN);
+
+        assertThat(indicator.health().getStatus()).isEqualTo(ZhipuAiHealthIndicator.DEGRADED);
+        assertThat(indicator.isAvailable()).isFalse();
+    }
+
+    @Test
+    void lowSuccessRateIsDegraded() {
+        for (int i = 0; i < 4; i++) {
+            callStats.record(i == 0, 10);
+        }
+
+        assertThat(indicator.health().getStatus()).isEqualTo(ZhipuAiHealthIndicator.DEGRADED);
+    }
+}
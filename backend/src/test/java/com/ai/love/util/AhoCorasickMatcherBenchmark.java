@@ -0,0 +1,96 @@
+package com.ai.love.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 情感词匹配基准：逐词 String.contains 循环 vs Aho–Corasick 单次扫描
+ * 运行：mvn test-compile 后以测试类路径执行 main 方法（或 org.openjdk.jmh.Main AhoCorasickMatcherBenchmark）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AhoCorasickMatcherBenchmark {
+
+    /**
+     * 原内置情感词表
+     */
+    private static final String[] BUILT_IN = {
+            "开心", "高兴", "快乐", "喜悦", "哈哈", "😊", "😄",
+            "难过", "伤心", "悲伤", "哭", "😢", "😭",
+            "生气", "愤怒", "气愤", "讨厌", "😡", "😠",
+            "害怕", "恐惧", "担心", "紧张", "😨", "😰",
+            "惊讶", "意外", "震惊", "😲", "😮",
+            "爱", "喜欢", "爱你", "亲爱的", "❤️", "💕",
+            "兴奋", "激动", "太棒了", "amazing", "😍",
+            "平静", "安静", "放松", "冷静", "😌"
+    };
+
+    private static final String MESSAGE = "今天和你聊天真的好开心，虽然工作上有点紧张，但是想到周末可以一起出去玩就很兴奋😊。"
+            + "你呢？最近有没有什么让你觉得意外或者难过的事情，说出来我陪你一起面对。";
+
+    /**
+     * 词表规模：内置词表，或扩充后的词典规模
+     */
+    @Param({"46", "2000"})
+    private int terms;
+
+    private String[] keywords;
+    private AhoCorasickMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        List<String> list = new ArrayList<>(List.of(BUILT_IN));
+        for (int i = 0; list.size() < terms; i++) {
+            // 合成的两字词，覆盖常用汉字区间
+            list.add(new String(new char[]{(char) (0x4E00 + i * 7 % 20000), (char) (0x4E00 + i * 13 % 20000)}));
+        }
+        keywords = list.subList(0, terms).toArray(new String[0]);
+        AhoCorasickMatcher.Builder builder = AhoCorasickMatcher.builder();
+        for (int i = 0; i < keywords.length; i++) {
+            builder.add(keywords[i], i);
+        }
+        matcher = builder.build();
+    }
+
+    @Benchmark
+    public int containsLoop() {
+        int hits = 0;
+        for (String keyword : keywords) {
+            if (MESSAGE.contains(keyword)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int ahoCorasick() {
+        int[] hits = new int[1];
+        matcher.match(MESSAGE, (payload, end) -> hits[0]++);
+        return hits[0];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AhoCorasickMatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.ai.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickMatcherTest {
+
+    private record Hit(int payload, int end) {
+    }
+
+    private static List<Hit> match(AhoCorasickMatcher matcher, String text) {
+        List<Hit> hits = new ArrayList<>();
+        matcher.match(text, (payload, end) -> hits.add(new Hit(payload, end)));
+        return hits;
+    }
+
+    private static AhoCorasickMatcher of(String... patterns) {
+        AhoCorasickMatcher.Builder builder = AhoCorasickMatcher.builder();
+        for (int i = 0; i < patterns.length; i++) {
+            builder.add(patterns[i], i);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void reportsOverlappingMatches() {
+        AhoCorasickMatcher matcher = of("he", "she", "his", "hers");
+
+        assertThat(match(matcher, "ushers"))
+                .containsExactlyInAnyOrder(new Hit(1, 4), new Hit(0, 4), new Hit(3, 6));
+    }
+
+    @Test
+    void reportsNestedMatches() {
+        AhoCorasickMatcher matcher = of("爱", "爱你", "亲爱的");
+
+        assertThat(match(matcher, "亲爱的我爱你"))
+                .containsExactlyInAnyOrder(new Hit(0, 2), new Hit(2, 3), new Hit(0, 5), new Hit(1, 6));
+    }
+
+    @Test
+    void mergesOutputsAlongFailLinks() {
+        AhoCorasickMatcher matcher = of("abcd", "bc", "c");
+
+        // 停在 "abc" 状态时，经失败指针 "bc" → "c" 的输出都要报告
+        assertThat(match(matcher, "abcx")).containsExactlyInAnyOrder(new Hit(1, 3), new Hit(2, 3));
+        assertThat(match(of("a", "ba", "cba"), "cba"))
+                .containsExactlyInAnyOrder(new Hit(0, 3), new Hit(1, 3), new Hit(2, 3));
+    }
+
+    @Test
+    void recoversThroughFailLinksAfterMismatch() {
+        AhoCorasickMatcher matcher = of("abab", "bac");
+
+        assertThat(match(matcher, "ababac")).containsExactlyInAnyOrder(new Hit(0, 4), new Hit(1, 6));
+    }
+
+    @Test
+    void duplicatePatternsReportEveryPayload() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().add("开心", 7).add("开心", 9).build();
+
+        assertThat(match(matcher, "很开心")).containsExactlyInAnyOrder(new Hit(7, 3), new Hit(9, 3));
+    }
+
+    @Test
+    void matchesSupplementaryCodePoints() {
+        AhoCorasickMatcher matcher = of("😊", "𠀀好");
+
+        // 结束位置按 char 下标计，增补平面字符占两个 char
+        assertThat(match(matcher, "a😊b𠀀好")).containsExactly(new Hit(0, 3), new Hit(1, 7));
+        // 高位代理相同的不同表情不能误匹配
+        assertThat(match(matcher, "😄")).isEmpty();
+    }
+
+    @Test
+    void ignoresVariationSelectors() {
+        AhoCorasickMatcher matcher = of("❤\uFE0F", "爱你");
+
+        assertThat(match(matcher, "❤")).containsExactly(new Hit(0, 1));
+        assertThat(match(matcher, "❤\uFE0E")).containsExactly(new Hit(0, 1));
+        assertThat(match(of("❤"), "❤\uFE0F")).containsExactly(new Hit(0, 1));
+        assertThat(match(matcher, "爱\uFE0F你")).containsExactly(new Hit(1, 3));
+    }
+
+    @Test
+    void agreesWithBruteForceOnLargeRandomDictionary() {
+        Random random = new Random(42);
+        String alphabet = "爱你我的开心难过ab😊";
+        int[] codePoints = alphabet.codePoints().toArray();
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            patterns.add(randomText(random, codePoints, 1 + random.nextInt(5)));
+        }
+        AhoCorasickMatcher matcher = of(patterns.toArray(new String[0]));
+
+        for (int round = 0; round < 50; round++) {
+            String text = randomText(random, codePoints, 40);
+            List<Hit> expected = new ArrayList<>();
+            for (int p = 0; p < patterns.size(); p++) {
+                String pattern = patterns.get(p);
+                for (int from = text.indexOf(pattern); from >= 0; from = text.indexOf(pattern, from + 1)) {
+                    if (!Character.isLowSurrogate(text.charAt(from))) {
+                        expected.add(new Hit(p, from + pattern.length()));
+                    }
+                }
+            }
+            assertThat(match(matcher, text)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private static String randomText(Random random, int[] codePoints, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    void ignoresEmptyPatternsAndInput() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().add("", 0).add("\uFE0F", 1).add("好", 2).build();
+
+        assertThat(matcher.size()).isEqualTo(2);
+        assertThat(match(matcher, "")).isEmpty();
+        assertThat(match(matcher, "好")).containsExactly(new Hit(2, 1));
+        assertThat(match(AhoCorasickMatcher.builder().build(), "任何文本")).isEmpty();
+    }
+}
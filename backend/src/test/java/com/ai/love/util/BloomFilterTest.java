@@ -0,0 +1,89 @@
+package com.ai.love.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 100_000;
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.01, 0.001})
+    void hasNoFalseNegativesAndBoundedFalsePositives(double fpp) {
+        BloomFilter filter = BloomFilter.create(INSERTIONS, fpp);
+        List<String> inserted = new ArrayList<>(INSERTIONS);
+        for (int i = 0; i < INSERTIONS; i++) {
+            String jti = UUID.randomUUID().toString();
+            inserted.add(jti);
+            filter.put(jti);
+        }
+
+        assertThat(inserted).allMatch(filter::mightContain);
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // 满载时的实测误判率不应明显超过设计值
+        assertThat((double) falsePositives / probes).isLessThan(fpp * 1.5);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    void concurrentPutsAreNotLost() throws Exception {
+        BloomFilter filter = BloomFilter.create(INSERTIONS, 0.01);
+        int threads = 4;
+        List<List<String>> batches = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<String> batch = new ArrayList<>();
+            for (int i = 0; i < INSERTIONS / threads; i++) {
+                batch.add(UUID.randomUUID().toString());
+            }
+            batches.add(batch);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<String> batch : batches) {
+                futures.add(executor.submit(() -> batch.forEach(filter::put)));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        batches.forEach(batch -> assertThat(batch).allMatch(filter::mightContain));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> BloomFilter.create(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BloomFilter.create(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BloomFilter.create(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ai.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChineseSegmenterTest {
+
+    private final ChineseSegmenter segmenter = ChineseSegmenter.of(List.of("猫咪", "电影", "看电影", "java"));
+
+    @Test
+    void prefersLongestDictionaryWord() {
+        assertThat(segmenter.segment("去看电影")).containsExactly("去", "看电影");
+    }
+
+    @Test
+    void splitsUnknownHanRunsIntoOverlappingBigrams() {
+        assertThat(segmenter.segment("量子纠缠")).containsExactly("量子", "子纠", "纠缠");
+        assertThat(segmenter.segment("我的猫咪")).containsExactly("我的", "猫咪");
+    }
+
+    @Test
+    void keepsIsolatedUnknownHanAsSingleCharacter() {
+        assertThat(segmenter.segment("猫咪睡电影")).containsExactly("猫咪", "睡", "电影");
+    }
+
+    @Test
+    void punctuationAndLatinBreakBigramRuns() {
+        assertThat(segmenter.segment("天气，晴朗")).containsExactly("天气", "晴朗");
+        assertThat(segmenter.segment("学习java编程")).containsExactly("学习", "java", "编程");
+        assertThat(segmenter.segment("javascript")).containsExactly("javascript");
+    }
+
+    @Test
+    void handlesSupplementaryIdeographs() {
+        assertThat(segmenter.segment("𠀀好")).containsExactly("𠀀好");
+    }
+
+    @Test
+    void emptyInputYieldsNoTokens() {
+        assertThat(segmenter.segment("")).isEmpty();
+        assertThat(segmenter.segment("，。 !")).isEmpty();
+    }
+}
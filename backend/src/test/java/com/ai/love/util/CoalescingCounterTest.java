@@ -0,0 +1,94 @@
+package com.ai.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingCounterTest {
+
+    private final CoalescingCounter counter = new CoalescingCounter();
+
+    @Test
+    void drainReturnsCoalescedDeltasAndResets() {
+        counter.add(1L, 1);
+        counter.add(1L, 2);
+        counter.add(2L, 5);
+
+        assertThat(counter.drain()).containsOnly(Map.entry(1L, 3L), Map.entry(2L, 5L));
+        assertThat(counter.drain()).isEmpty();
+    }
+
+    @Test
+    void idleIdsAreRemovedAfterAnEmptyCycle() {
+        counter.add(1L, 1);
+        counter.drain();
+        assertThat(counter.size()).isEqualTo(1);
+
+        counter.drain();
+        assertThat(counter.size()).isZero();
+    }
+
+    @Test
+    void ignoresNullIdAndZeroDelta() {
+        counter.add(null, 1);
+        counter.add(1L, 0);
+
+        assertThat(counter.size()).isZero();
+        assertThat(counter.drain()).isEmpty();
+    }
+
+    @Test
+    void restorePutsDeltasBackForNextCycle() {
+        counter.add(1L, 3);
+        Map<Long, Long> failed = counter.drain();
+
+        counter.add(1L, 2);
+        counter.restore(failed);
+
+        assertThat(counter.drain()).containsOnly(Map.entry(1L, 5L));
+    }
+
+    @Test
+    void concurrentAddsAreNeverLostWhileDraining() throws Exception {
+        int threads = 4;
+        int perThread = 200_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicBoolean running = new AtomicBoolean(true);
+        long drained = 0;
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        counter.add((long) (i % 8), 1);
+                    }
+                }));
+            }
+            while (running.get()) {
+                drained += sum(counter.drain());
+                running.set(writers.stream().anyMatch(f -> !f.isDone()));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        drained += sum(counter.drain());
+
+        assertThat(drained).isEqualTo((long) threads * perThread);
+    }
+
+    private static long sum(Map<Long, Long> deltas) {
+        return deltas.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
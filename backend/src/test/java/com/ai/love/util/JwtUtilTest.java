@@ -0,0 +1,63 @@
+package com.ai.love.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "unit-test-secret-key-with-at-least-256-bits-for-hs256";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000L, 100, meterRegistry);
+
+    @Test
+    void parsesClaimsAndServesRepeatsFromCache() {
+        String token = jwtUtil.generateToken("alice", 7L);
+
+        JwtUtil.TokenClaims first = jwtUtil.parseToken(token);
+        JwtUtil.TokenClaims second = jwtUtil.parseToken(token);
+
+        assertThat(first.username()).isEqualTo("alice");
+        assertThat(first.userId()).isEqualTo(7L);
+        assertThat(first.roles()).containsExactly(JwtUtil.DEFAULT_ROLE);
+        assertThat(first.jti()).isNotBlank();
+        assertThat(first.expiration()).isAfter(Instant.now());
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwtClaims").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        String token = jwtUtil.generateToken("alice", 7L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtil.parseToken(tampered)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.validateToken(tampered, "alice")).isFalse();
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        JwtUtil expiring = new JwtUtil(SECRET, -1_000L, 100, new SimpleMeterRegistry());
+        String token = expiring.generateToken("alice", 7L);
+
+        assertThatThrownBy(() -> expiring.parseToken(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(expiring.isTokenExpired(token)).isTrue();
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        JwtUtil other = new JwtUtil("another-secret-key-with-at-least-256-bits-for-hs256!", 3_600_000L, 100,
+                new SimpleMeterRegistry());
+
+        assertThatThrownBy(() -> jwtUtil.parseToken(other.generateToken("alice", 7L)))
+                .isInstanceOf(JwtException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.ai.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void countsExactlyWhileUnderCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        sketch.offer("开心");
+        sketch.offer("开心");
+        sketch.offer("工作", 3);
+
+        assertThat(sketch.top(10)).containsExactly(
+                new SpaceSavingSketch.Entry("工作", 3, 0),
+                new SpaceSavingSketch.Entry("开心", 2, 0));
+    }
+
+    @Test
+    void guaranteesHeavyHittersAndErrorBounds() {
+        int capacity = 50;
+        int n = 100_000;
+        Random random = new Random(7);
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        for (int i = 0; i < n; i++) {
+            // 近似 Zipf 分布：少数高频词加大量长尾词
+            String item = "w" + (int) Math.floor(Math.pow(random.nextDouble(), 3) * 5_000);
+            truth.merge(item, 1L, Long::sum);
+            sketch.offer(item);
+        }
+
+        List<SpaceSavingSketch.Entry> entries = sketch.top(capacity);
+        assertThat(entries).hasSize(capacity);
+        assertThat(entries.stream().mapToLong(SpaceSavingSketch.Entry::count).sum()).isEqualTo(n);
+        for (SpaceSavingSketch.Entry entry : entries) {
+            long actual = truth.getOrDefault(entry.item(), 0L);
+            assertThat(actual).isLessThanOrEqualTo(entry.count());
+            assertThat(actual).isGreaterThanOrEqualTo(entry.count() - entry.error());
+            assertThat(entry.error()).isLessThanOrEqualTo(n / capacity);
+        }
+        assertThat(truth.values()).anyMatch(count -> count > n / capacity);
+        List<String> kept = entries.stream().map(SpaceSavingSketch.Entry::item).toList();
+        truth.forEach((item, count) -> {
+            if (count > n / capacity) {
+                assertThat(kept).contains(item);
+            }
+        });
+    }
+
+    @Test
+    void replacedItemInheritsMinimumAsError() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer("a", 5);
+        sketch.offer("b", 2);
+        sketch.offer("c");
+
+        assertThat(sketch.top(2)).containsExactly(
+                new SpaceSavingSketch.Entry("a", 5, 0),
+                new SpaceSavingSketch.Entry("c", 3, 2));
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        for (String item : new String[]{"爱", "爱", "爱", "猫咪", "猫咪", "电影", "加班", "😊"}) {
+            sketch.offer(item);
+        }
+        sketch.offer("超长计数", 1L << 40);
+
+        SpaceSavingSketch restored = SpaceSavingSketch.fromBytes(sketch.toBytes(), 3);
+
+        assertThat(restored.top(3)).isEqualTo(sketch.top(3));
+        restored.offer("爱");
+        sketch.offer("爱");
+        assertThat(restored.top(3)).isEqualTo(sketch.top(3));
+    }
+
+    @Test
+    void shrinkingCapacityKeepsHighestCounts() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(5);
+        for (int i = 1; i <= 5; i++) {
+            sketch.offer("w" + i, i);
+        }
+
+        SpaceSavingSketch shrunk = SpaceSavingSketch.fromBytes(sketch.toBytes(), 2);
+
+        assertThat(shrunk.size()).isEqualTo(2);
+        assertThat(shrunk.top(5)).extracting(SpaceSavingSketch.Entry::item).containsExactly("w5", "w4");
+    }
+
+    @Test
+    void rejectsCorruptedData() {
+        byte[] data = new SpaceSavingSketch(4).toBytes();
+        SpaceSavingSketch full = new SpaceSavingSketch(4);
+        full.offer("开心", 3);
+        byte[] truncated = Arrays.copyOf(full.toBytes(), full.toBytes().length - 2);
+        byte[] wrongVersion = data.clone();
+        wrongVersion[0] = 99;
+
+        assertThatThrownBy(() -> SpaceSavingSketch.fromBytes(new byte[0], 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SpaceSavingSketch.fromBytes(truncated, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SpaceSavingSketch.fromBytes(wrongVersion, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SpaceSavingSketch(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.ai.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    private static final long START = 1_000_000_000L;
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void burstEqualsCapacity() {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(1), START);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryAcquire(START)).isZero();
+        }
+        assertThat(bucket.tryAcquire(START)).isPositive();
+    }
+
+    @Test
+    void exhaustedBucketReportsWaitUntilNextToken() {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(1), START);
+        drain(bucket, START);
+
+        assertThat(bucket.tryAcquire(START)).isEqualTo(INTERVAL);
+        assertThat(bucket.tryAcquire(START + 40_000_000L)).isEqualTo(INTERVAL - 40_000_000L);
+        // 被拒绝的请求不消耗令牌
+        assertThat(bucket.tryAcquire(START + INTERVAL)).isZero();
+        assertThat(bucket.tryAcquire(START + INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(1), START);
+        drain(bucket, START);
+
+        long halfPeriod = START + 5 * INTERVAL;
+        assertThat(drain(bucket, halfPeriod)).isEqualTo(5);
+    }
+
+    @Test
+    void idleTimeDoesNotExceedCapacity() {
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(1), START);
+        drain(bucket, START);
+
+        long muchLater = START + TimeUnit.HOURS.toNanos(1);
+        assertThat(drain(bucket, muchLater)).isEqualTo(10);
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedCapacity() throws Exception {
+        int capacity = 1_000;
+        TokenBucket bucket = new TokenBucket(capacity, Duration.ofMinutes(1), START);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int acquired = 0;
+                    for (int i = 0; i < capacity; i++) {
+                        if (bucket.tryAcquire(START) == 0) {
+                            acquired++;
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(total).isEqualTo(capacity);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThatThrownBy(() -> new TokenBucket(0, Duration.ofSeconds(1), START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int drain(TokenBucket bucket, long nowNanos) {
+        int acquired = 0;
+        while (bucket.tryAcquire(nowNanos) == 0) {
+            acquired++;
+        }
+        return acquired;
+    }
+}
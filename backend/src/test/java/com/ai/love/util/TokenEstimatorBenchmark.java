@@ -0,0 +1,69 @@
+package com.ai.love.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌估算基准：按 Unicode 脚本区分汉字的旧估算 vs 单次字符遍历的 TokenEstimator
+ * 运行：mvn test-compile 后以测试类路径执行 main 方法（或 org.openjdk.jmh.Main TokenEstimatorBenchmark）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenEstimatorBenchmark {
+
+    private static final String SAMPLE = "今天和朋友去看了电影，感觉 really nice！我们聊了很多关于 future plans 的话题，"
+            + "他说明年想去 Tokyo 旅行 2 周😊。你觉得呢？";
+
+    @Param({"1", "20"})
+    private int repeat;
+
+    private String text;
+    private TokenEstimator estimator;
+
+    @Setup
+    public void setUp() {
+        text = SAMPLE.repeat(repeat);
+        estimator = new TokenEstimator();
+    }
+
+    @Benchmark
+    public int unicodeScript() {
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.UnicodeScript.of(text.charAt(i)) == Character.UnicodeScript.HAN) {
+                cjk++;
+            } else {
+                other++;
+            }
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    @Benchmark
+    public int tokenEstimator() {
+        return estimator.estimate(text);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenEstimatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,57 @@
+package com.ai.love.util;
+
+import com.ai.love.dto.ai.ChatMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenEstimatorTest {
+
+    private final TokenEstimator estimator = new TokenEstimator();
+
+    static Stream<Arguments> samples() {
+        return Stream.of(
+                Arguments.of(null, 0),
+                Arguments.of("", 0),
+                Arguments.of(" \t\n　", 0),
+                Arguments.of("你好", 2),
+                Arguments.of("hello", 2),
+                Arguments.of("hello world", 4),
+                Arguments.of("12345", 2),
+                Arguments.of("abc123", 2),
+                Arguments.of("你好，world!", 6),
+                Arguments.of("我爱Java编程", 5),
+                Arguments.of("GPT-4模型", 5),
+                Arguments.of("I love you, 我也爱你。", 9),
+                Arguments.of("😀", 2),
+                Arguments.of("今天心情很好😊", 8),
+                Arguments.of("𠀀", 2)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("samples")
+    void estimatesKnownCounts(String text, int expected) {
+        assertThat(estimator.estimate(text)).isEqualTo(expected);
+    }
+
+    @Test
+    void messageAddsFormatOverhead() {
+        assertThat(estimator.estimateMessage("你好")).isEqualTo(2 + TokenEstimator.MESSAGE_OVERHEAD_TOKENS);
+    }
+
+    @Test
+    void promptSumsSystemPromptMessagesAndReplyPriming() {
+        List<ChatMessage> messages = List.of(ChatMessage.user("你好"), ChatMessage.user("hello world"));
+
+        // 回复起始标记3 + 系统提示词(2+4) + 消息(2+4) + 消息(4+4)
+        assertThat(estimator.estimatePrompt("你是", messages)).isEqualTo(23);
+        assertThat(estimator.estimatePrompt(null, messages)).isEqualTo(17);
+    }
+}
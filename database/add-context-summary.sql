@@ -0,0 +1,11 @@
+-- 添加对话摘要水位字段到conversations表
+-- 执行时间：2026-10-17
+
+USE ai_love_system;
+
+-- 上下文摘要已覆盖到的最后一条消息ID，之后的消息仍以原文发送给模型
+ALTER TABLE conversations
+ADD COLUMN summary_message_id BIGINT DEFAULT NULL COMMENT '上下文摘要覆盖的最后一条消息ID';
+
+-- 验证表结构
+DESCRIBE conversations;
@@ -0,0 +1,19 @@
+-- 添加用户每日情感汇总表 user_emotion_daily
+-- 情感分析写入时按用户和日期累加，情感趋势查询不再对分析结果按 DATE(created_at) 分组
+-- 执行后设置 app.emotion.trend-backfill-enabled=true 启动一次应用，按天回填历史数据（可重复执行）
+-- 执行时间：2026-10-17
+
+USE ai_love_system;
+
+CREATE TABLE `user_emotion_daily` (
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `stat_date` DATE NOT NULL COMMENT '统计日期',
+  `analysis_count` BIGINT NOT NULL DEFAULT 0 COMMENT '当日情感分析数',
+  `valence_sum` DOUBLE NOT NULL DEFAULT 0 COMMENT '当日效价之和',
+  `intensity_sum` DOUBLE NOT NULL DEFAULT 0 COMMENT '当日强度之和',
+  PRIMARY KEY (`user_id`, `stat_date`),
+  CONSTRAINT `fk_emotion_daily_user_id` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户每日情感汇总表';
+
+-- 验证表结构
+DESCRIBE user_emotion_daily;
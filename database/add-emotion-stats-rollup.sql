@@ -0,0 +1,60 @@
+-- 添加用户情感统计汇总表 user_emotion_stats
+-- 情感分析写入时按用户增量累加，统计接口只读一行，不再对全部历史做聚合查询
+-- 执行时间：2026-10-17
+
+USE ai_love_system;
+
+CREATE TABLE `user_emotion_stats` (
+  `user_id` BIGINT NOT NULL COMMENT '用户ID，主键',
+  `total_count` BIGINT NOT NULL DEFAULT 0 COMMENT '情感分析总数',
+  `positive_count` BIGINT NOT NULL DEFAULT 0 COMMENT '正面情感数(效价>0.1)',
+  `negative_count` BIGINT NOT NULL DEFAULT 0 COMMENT '负面情感数(效价<-0.1)',
+  `joy_count` BIGINT NOT NULL DEFAULT 0 COMMENT '喜悦次数',
+  `sadness_count` BIGINT NOT NULL DEFAULT 0 COMMENT '悲伤次数',
+  `anger_count` BIGINT NOT NULL DEFAULT 0 COMMENT '愤怒次数',
+  `fear_count` BIGINT NOT NULL DEFAULT 0 COMMENT '恐惧次数',
+  `surprise_count` BIGINT NOT NULL DEFAULT 0 COMMENT '惊讶次数',
+  `disgust_count` BIGINT NOT NULL DEFAULT 0 COMMENT '厌恶次数',
+  `love_count` BIGINT NOT NULL DEFAULT 0 COMMENT '爱意次数',
+  `excitement_count` BIGINT NOT NULL DEFAULT 0 COMMENT '兴奋次数',
+  `calm_count` BIGINT NOT NULL DEFAULT 0 COMMENT '平静次数',
+  `anxiety_count` BIGINT NOT NULL DEFAULT 0 COMMENT '焦虑次数',
+  `happiness_count` BIGINT NOT NULL DEFAULT 0 COMMENT '快乐次数',
+  `disappointment_count` BIGINT NOT NULL DEFAULT 0 COMMENT '失望次数',
+  `curiosity_count` BIGINT NOT NULL DEFAULT 0 COMMENT '好奇次数',
+  `confusion_count` BIGINT NOT NULL DEFAULT 0 COMMENT '困惑次数',
+  `neutral_count` BIGINT NOT NULL DEFAULT 0 COMMENT '中性次数',
+  `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`user_id`),
+  CONSTRAINT `fk_emotion_stats_user_id` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户情感统计汇总表';
+
+-- 由已有的情感分析结果回填
+INSERT INTO user_emotion_stats (user_id, total_count, positive_count, negative_count,
+    joy_count, sadness_count, anger_count, fear_count, surprise_count, disgust_count, love_count, excitement_count, calm_count, anxiety_count, happiness_count, disappointment_count, curiosity_count, confusion_count, neutral_count)
+SELECT c.user_id,
+    COUNT(*),
+    SUM(e.valence > 0.1),
+    SUM(e.valence < -0.1),
+    SUM(e.emotion_type = 'JOY'),
+    SUM(e.emotion_type = 'SADNESS'),
+    SUM(e.emotion_type = 'ANGER'),
+    SUM(e.emotion_type = 'FEAR'),
+    SUM(e.emotion_type = 'SURPRISE'),
+    SUM(e.emotion_type = 'DISGUST'),
+    SUM(e.emotion_type = 'LOVE'),
+    SUM(e.emotion_type = 'EXCITEMENT'),
+    SUM(e.emotion_type = 'CALM'),
+    SUM(e.emotion_type = 'ANXIETY'),
+    SUM(e.emotion_type = 'HAPPINESS'),
+    SUM(e.emotion_type = 'DISAPPOINTMENT'),
+    SUM(e.emotion_type = 'CURIOSITY'),
+    SUM(e.emotion_type = 'CONFUSION'),
+    SUM(e.emotion_type = 'NEUTRAL')
+FROM emotion_analysis e
+JOIN conversations c ON c.id = e.conversation_id
+GROUP BY c.user_id;
+
+-- 验证表结构
+DESCRIBE user_emotion_stats;
+SELECT COUNT(*) AS users_with_stats FROM user_emotion_stats;
@@ -0,0 +1,13 @@
+-- 添加用户关键词高频项字段到user_emotion_stats表
+-- 关键词云由增量维护的 Space-Saving 高频项表提供，不再读取并聚合用户全部历史关键词
+-- 已有用户的字段为空，由后台定时任务（EmotionStatsRollup.rebuildMissingSketches）分批从历史分析结果重建，
+-- 重建完成前统计接口返回空的关键词云
+-- 执行时间：2026-10-17
+
+USE ai_love_system;
+
+ALTER TABLE user_emotion_stats
+ADD COLUMN keyword_sketch BLOB DEFAULT NULL COMMENT '关键词高频项(Space-Saving，二进制)' AFTER negative_count;
+
+-- 验证表结构
+DESCRIBE user_emotion_stats;
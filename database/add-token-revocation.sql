@@ -0,0 +1,18 @@
+-- 添加令牌吊销表 revoked_tokens
+-- 登出和刷新令牌时按 jti 记录被吊销的JWT，过期后由应用定期清理
+-- 执行时间：2026-10-17
+
+USE ai_love_system;
+
+CREATE TABLE `revoked_tokens` (
+  `jti` VARCHAR(64) NOT NULL COMMENT '令牌ID（jti声明）',
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `expires_at` DATETIME NOT NULL COMMENT '令牌过期时间，过期后可删除',
+  `revoked_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '吊销时间',
+  PRIMARY KEY (`jti`),
+  KEY `idx_revoked_tokens_expires_at` (`expires_at`),
+  KEY `idx_revoked_tokens_revoked_at` (`revoked_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='令牌吊销表';
+
+-- 验证表结构
+DESCRIBE revoked_tokens;
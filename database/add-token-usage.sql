@@ -0,0 +1,16 @@
+-- 添加令牌消耗统计字段到users、ai_characters表
+-- 执行时间：2026-10-17
+
+USE ai_love_system;
+
+-- 用户累计令牌消耗
+ALTER TABLE users
+ADD COLUMN total_tokens BIGINT NOT NULL DEFAULT 0 COMMENT '累计令牌消耗';
+
+-- 角色累计令牌消耗
+ALTER TABLE ai_characters
+ADD COLUMN total_tokens BIGINT NOT NULL DEFAULT 0 COMMENT '累计令牌消耗';
+
+-- 验证表结构
+DESCRIBE users;
+DESCRIBE ai_characters;
@@ -16,6 +16,9 @@ START TRANSACTION;
 SET FOREIGN_KEY_CHECKS = 0;
 
 -- 清理数据（按依赖关系倒序删除）
+DELETE FROM `revoked_tokens`;
+DELETE FROM `user_emotion_daily`;
+DELETE FROM `user_emotion_stats`;
 DELETE FROM `emotion_analysis`;
 DELETE FROM `messages`;
 DELETE FROM `conversations`;
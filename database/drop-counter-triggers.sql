@@ -0,0 +1,12 @@
+-- 移除与应用计数重复的触发器
+-- 执行时间：2026-10-17
+-- 对话消息数、最后消息时间和角色使用次数改由应用在内存中合并后批量更新（UsageCounterService），
+-- 保留触发器会导致每条消息重复计数
+
+USE ai_love_system;
+
+DROP TRIGGER IF EXISTS `tr_conversation_message_count`;
+DROP TRIGGER IF EXISTS `tr_character_usage_stats`;
+
+-- 验证触发器
+SHOW TRIGGERS;
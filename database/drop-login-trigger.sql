@@ -0,0 +1,11 @@
+-- 移除登录次数触发器
+-- 执行时间：2026-10-17
+-- 登录次数与最后登录时间改由应用在内存中合并后批量更新（UsageCounterService），
+-- 触发器会导致重复计数，且在 users 表的 UPDATE 中再更新 users 本身会被 MySQL 拒绝
+
+USE ai_love_system;
+
+DROP TRIGGER IF EXISTS `tr_user_login_update`;
+
+-- 验证触发器
+SHOW TRIGGERS;
@@ -39,6 +39,7 @@ CREATE TABLE `users` (
   `avatar_url` VARCHAR(500) DEFAULT NULL COMMENT '头像URL',
   `status` ENUM('ACTIVE', 'INACTIVE', 'SUSPENDED', 'DELETED') NOT NULL DEFAULT 'ACTIVE' COMMENT '用户状态',
   `login_count` INT NOT NULL DEFAULT 0 COMMENT '登录次数',
+  `total_tokens` BIGINT NOT NULL DEFAULT 0 COMMENT '累计令牌消耗',
   `last_login_at` DATETIME DEFAULT NULL COMMENT '最后登录时间',
   `last_login_ip` VARCHAR(45) DEFAULT NULL COMMENT '最后登录IP',
   `email_verified` BOOLEAN NOT NULL DEFAULT FALSE COMMENT '邮箱是否已验证',
@@ -78,6 +79,7 @@ CREATE TABLE `ai_characters` (
   `max_tokens` INT NOT NULL DEFAULT 2048 COMMENT '最大令牌数',
   `status` ENUM('ACTIVE', 'INACTIVE', 'DELETED') NOT NULL DEFAULT 'ACTIVE' COMMENT '角色状态',
   `usage_count` INT NOT NULL DEFAULT 0 COMMENT '使用次数',
+  `total_tokens` BIGINT NOT NULL DEFAULT 0 COMMENT '累计令牌消耗',
   `rating` DECIMAL(3,2) DEFAULT NULL COMMENT '用户评分(1.0-5.0)',
   `is_public` BOOLEAN NOT NULL DEFAULT FALSE COMMENT '是否公开',
   `tags` JSON DEFAULT NULL COMMENT '标签(JSON数组)',
@@ -107,6 +109,7 @@ CREATE TABLE `conversations` (
   `status` ENUM('ACTIVE', 'PAUSED', 'COMPLETED', 'ARCHIVED', 'DELETED') NOT NULL DEFAULT 'ACTIVE' COMMENT '对话状态',
   `message_count` INT NOT NULL DEFAULT 0 COMMENT '消息总数',
   `context_summary` TEXT DEFAULT NULL COMMENT '对话上下文摘要',
+  `summary_message_id` BIGINT DEFAULT NULL COMMENT '上下文摘要覆盖的最后一条消息ID',
   `last_message_at` DATETIME DEFAULT NULL COMMENT '最后消息时间',
   `total_tokens` INT NOT NULL DEFAULT 0 COMMENT '总令牌消耗',
   `avg_response_time` INT DEFAULT NULL COMMENT '平均响应时间(毫秒)',
@@ -186,6 +189,67 @@ CREATE TABLE `emotion_analysis` (
   CONSTRAINT `fk_emotion_conversation_id` FOREIGN KEY (`conversation_id`) REFERENCES `conversations` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='情感分析结果表';
 
+-- =====================================================
+-- 6.1 用户情感统计汇总表 (user_emotion_stats)
+-- =====================================================
+
+DROP TABLE IF EXISTS `user_emotion_stats`;
+CREATE TABLE `user_emotion_stats` (
+  `user_id` BIGINT NOT NULL COMMENT '用户ID，主键',
+  `total_count` BIGINT NOT NULL DEFAULT 0 COMMENT '情感分析总数',
+  `positive_count` BIGINT NOT NULL DEFAULT 0 COMMENT '正面情感数(效价>0.1)',
+  `negative_count` BIGINT NOT NULL DEFAULT 0 COMMENT '负面情感数(效价<-0.1)',
+  `keyword_sketch` BLOB DEFAULT NULL COMMENT '关键词高频项(Space-Saving，二进制)',
+  `joy_count` BIGINT NOT NULL DEFAULT 0 COMMENT '喜悦次数',
+  `sadness_count` BIGINT NOT NULL DEFAULT 0 COMMENT '悲伤次数',
+  `anger_count` BIGINT NOT NULL DEFAULT 0 COMMENT '愤怒次数',
+  `fear_count` BIGINT NOT NULL DEFAULT 0 COMMENT '恐惧次数',
+  `surprise_count` BIGINT NOT NULL DEFAULT 0 COMMENT '惊讶次数',
+  `disgust_count` BIGINT NOT NULL DEFAULT 0 COMMENT '厌恶次数',
+  `love_count` BIGINT NOT NULL DEFAULT 0 COMMENT '爱意次数',
+  `excitement_count` BIGINT NOT NULL DEFAULT 0 COMMENT '兴奋次数',
+  `calm_count` BIGINT NOT NULL DEFAULT 0 COMMENT '平静次数',
+  `anxiety_count` BIGINT NOT NULL DEFAULT 0 COMMENT '焦虑次数',
+  `happiness_count` BIGINT NOT NULL DEFAULT 0 COMMENT '快乐次数',
+  `disappointment_count` BIGINT NOT NULL DEFAULT 0 COMMENT '失望次数',
+  `curiosity_count` BIGINT NOT NULL DEFAULT 0 COMMENT '好奇次数',
+  `confusion_count` BIGINT NOT NULL DEFAULT 0 COMMENT '困惑次数',
+  `neutral_count` BIGINT NOT NULL DEFAULT 0 COMMENT '中性次数',
+  `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`user_id`),
+  CONSTRAINT `fk_emotion_stats_user_id` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户情感统计汇总表';
+
+-- =====================================================
+-- 6.2 用户每日情感汇总表 (user_emotion_daily)
+-- =====================================================
+
+DROP TABLE IF EXISTS `user_emotion_daily`;
+CREATE TABLE `user_emotion_daily` (
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `stat_date` DATE NOT NULL COMMENT '统计日期',
+  `analysis_count` BIGINT NOT NULL DEFAULT 0 COMMENT '当日情感分析数',
+  `valence_sum` DOUBLE NOT NULL DEFAULT 0 COMMENT '当日效价之和',
+  `intensity_sum` DOUBLE NOT NULL DEFAULT 0 COMMENT '当日强度之和',
+  PRIMARY KEY (`user_id`, `stat_date`),
+  CONSTRAINT `fk_emotion_daily_user_id` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户每日情感汇总表';
+
+-- =====================================================
+-- 6.3 令牌吊销表 (revoked_tokens)
+-- =====================================================
+
+DROP TABLE IF EXISTS `revoked_tokens`;
+CREATE TABLE `revoked_tokens` (
+  `jti` VARCHAR(64) NOT NULL COMMENT '令牌ID（jti声明）',
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `expires_at` DATETIME NOT NULL COMMENT '令牌过期时间，过期后可删除',
+  `revoked_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '吊销时间',
+  PRIMARY KEY (`jti`),
+  KEY `idx_revoked_tokens_expires_at` (`expires_at`),
+  KEY `idx_revoked_tokens_revoked_at` (`revoked_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='令牌吊销表';
+
 -- =====================================================
 -- 7. 用户会话表 (user_sessions)
 -- =====================================================
@@ -500,29 +564,7 @@ DELIMITER ;
 
 DELIMITER //
 
--- 用户登录次数更新触发器
-CREATE TRIGGER `tr_user_login_update`
-AFTER UPDATE ON `users`
-FOR EACH ROW
-BEGIN
-    IF NEW.last_login_at != OLD.last_login_at THEN
-        UPDATE users
-        SET login_count = login_count + 1
-        WHERE id = NEW.id;
-    END IF;
-END //
-
--- 对话消息计数更新触发器
-CREATE TRIGGER `tr_conversation_message_count`
-AFTER INSERT ON `messages`
-FOR EACH ROW
-BEGIN
-    UPDATE conversations
-    SET message_count = message_count + 1,
-        last_message_at = NEW.created_at,
-        updated_at = CURRENT_TIMESTAMP
-    WHERE id = NEW.conversation_id;
-END //
+-- 登录次数、对话消息计数与角色使用次数由应用合并后批量更新（UsageCounterService），不再使用触发器，避免重复计数
 
 -- 消息删除时更新对话计数触发器
 CREATE TRIGGER `tr_conversation_message_delete`
@@ -537,17 +579,6 @@ BEGIN
     END IF;
 END //
 
--- 角色使用统计触发器
-CREATE TRIGGER `tr_character_usage_stats`
-AFTER INSERT ON `conversations`
-FOR EACH ROW
-BEGIN
-    UPDATE ai_characters
-    SET usage_count = usage_count + 1,
-        updated_at = CURRENT_TIMESTAMP
-    WHERE id = NEW.character_id;
-END //
-
 -- 操作日志记录触发器
 CREATE TRIGGER `tr_user_operation_log`
 AFTER UPDATE ON `users`